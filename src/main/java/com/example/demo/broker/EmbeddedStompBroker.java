@@ -0,0 +1,272 @@
+package com.example.demo.broker;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.BufferingStompDecoder;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal STOMP 1.2 broker over TCP that runs inside the application, so the
+ * broker relay can be exercised and measured on one machine without an
+ * external broker. Enabled with {@code uno.broker.embedded=true}; it listens
+ * on {@code uno.broker.relay.host} and {@code uno.broker.relay.port}, where
+ * port 0 picks a free one.
+ *
+ * <p>It supports what the relay uses: CONNECT, SUBSCRIBE, UNSUBSCRIBE, SEND,
+ * DISCONNECT and receipts. Destinations match exactly, messages are
+ * acknowledged automatically and nothing is persisted. Each connection has
+ * its own reader thread; a SEND is fanned out on the sender's thread.
+ */
+@Component
+@ConditionalOnProperty(name = "uno.broker.embedded", havingValue = "true")
+public class EmbeddedStompBroker {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedStompBroker.class);
+
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int FRAME_SIZE_LIMIT = 512 * 1024;
+
+    private final String host;
+    private final int requestedPort;
+
+    private final StompEncoder encoder = new StompEncoder();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    // Destination -> subscriptions to it
+    private final ConcurrentMap<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicLong messageIds = new AtomicLong();
+
+    private ServerSocket serverSocket;
+    private volatile boolean running;
+
+    public EmbeddedStompBroker(@Value("${uno.broker.relay.host:127.0.0.1}") String host,
+            @Value("${uno.broker.relay.port:61613}") int port) {
+        this.host = host;
+        this.requestedPort = port;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(host, requestedPort));
+        running = true;
+
+        Thread acceptor = new Thread(this::accept, "stomp-broker-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Embedded STOMP broker listening on {}:{}", host, getPort());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.debug("Closing the broker socket failed", e);
+        }
+        connections.forEach(Connection::close);
+    }
+
+    /**
+     * The port the broker listens on.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Number of subscriptions to {@code destination}, across all connections.
+     */
+    public int subscriberCount(String destination) {
+        Set<Subscription> subscribers = subscriptions.get(destination);
+        return subscribers != null ? subscribers.size() : 0;
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(socket);
+                connections.add(connection);
+
+                Thread reader = new Thread(connection::read, "stomp-broker-" + socket.getPort());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Accepting a broker connection failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handle(Connection connection, Message<byte[]> message) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        StompCommand command = accessor != null ? accessor.getCommand() : null;
+        if (command == null) {
+            // Heartbeat
+            return;
+        }
+
+        switch (command) {
+            case CONNECT, STOMP -> {
+                StompHeaderAccessor connected = StompHeaderAccessor.create(StompCommand.CONNECTED);
+                connected.setVersion("1.2");
+                connected.setHeartbeat(0, 0);
+                connection.send(connected, new byte[0]);
+            }
+            case SUBSCRIBE -> {
+                Subscription subscription = new Subscription(connection, accessor.getSubscriptionId(),
+                        accessor.getDestination());
+                connection.subscriptions.put(subscription.id(), subscription);
+                subscriptions.computeIfAbsent(subscription.destination(), d -> ConcurrentHashMap.newKeySet())
+                        .add(subscription);
+            }
+            case UNSUBSCRIBE -> {
+                Subscription subscription = connection.subscriptions.remove(accessor.getSubscriptionId());
+                if (subscription != null) {
+                    unsubscribe(subscription);
+                }
+            }
+            case SEND -> publish(accessor, message.getPayload());
+            case DISCONNECT -> {
+                receipt(connection, accessor);
+                connection.close();
+                return;
+            }
+            default -> {
+                // ACK, NACK and transactions are not needed with automatic acknowledgement
+            }
+        }
+        receipt(connection, accessor);
+    }
+
+    private void publish(StompHeaderAccessor send, byte[] payload) {
+        Set<Subscription> subscribers = subscriptions.get(send.getDestination());
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscription subscription : subscribers) {
+            StompHeaderAccessor message = StompHeaderAccessor.create(StompCommand.MESSAGE);
+            for (Map.Entry<String, List<String>> header : send.toNativeHeaderMap().entrySet()) {
+                String name = header.getKey();
+                if (!name.equals(StompHeaderAccessor.STOMP_RECEIPT_HEADER) && !name.equals("transaction")
+                        && !name.equals(StompHeaderAccessor.STOMP_CONTENT_LENGTH_HEADER)) {
+                    message.setNativeHeaderValues(name, header.getValue());
+                }
+            }
+            message.setDestination(subscription.destination());
+            message.setSubscriptionId(subscription.id());
+            message.setMessageId(Long.toString(messageIds.incrementAndGet()));
+            subscription.connection().send(message, payload);
+        }
+    }
+
+    private void receipt(Connection connection, StompHeaderAccessor accessor) {
+        String receipt = accessor.getReceipt();
+        if (receipt != null) {
+            StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.RECEIPT);
+            headers.setReceiptId(receipt);
+            connection.send(headers, new byte[0]);
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.destination(), (destination, subscribers) -> {
+            subscribers.remove(subscription);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private record Subscription(Connection connection, String id, String destination) {
+    }
+
+    private final class Connection {
+
+        private final Socket socket;
+        private final OutputStream out;
+        private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+        private Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        private void read() {
+            BufferingStompDecoder decoder = new BufferingStompDecoder(new StompDecoder(), FRAME_SIZE_LIMIT);
+            byte[] buffer = new byte[READ_BUFFER_SIZE];
+            try (InputStream in = socket.getInputStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    for (Message<byte[]> message : decoder.decode(ByteBuffer.wrap(buffer, 0, read))) {
+                        handle(this, message);
+                    }
+                }
+            } catch (IOException e) {
+                log.debug("Broker connection {} closed: {}", socket.getRemoteSocketAddress(), e.getMessage());
+            } catch (RuntimeException e) {
+                log.warn("Broker connection {} failed", socket.getRemoteSocketAddress(), e);
+            } finally {
+                close();
+            }
+        }
+
+        private void send(StompHeaderAccessor headers, byte[] payload) {
+            byte[] frame = encoder.encode(MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+            synchronized (this) {
+                try {
+                    out.write(frame);
+                    out.flush();
+                } catch (IOException e) {
+                    log.debug("Writing to broker connection {} failed: {}", socket.getRemoteSocketAddress(),
+                            e.getMessage());
+                    close();
+                }
+            }
+        }
+
+        private void close() {
+            if (!connections.remove(this)) {
+                return;
+            }
+            subscriptions.values().forEach(EmbeddedStompBroker.this::unsubscribe);
+            subscriptions.clear();
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Closing broker connection failed", e);
+            }
+        }
+    }
+}
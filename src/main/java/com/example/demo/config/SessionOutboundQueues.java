@@ -0,0 +1,372 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives every WebSocket session its own outbound queue, so a slow client
+ * holds up only itself instead of an outbound channel thread.
+ *
+ * <p>Frames are queued as they are sent and written by one thread per
+ * session while the queue is not empty; a virtual one when
+ * {@code spring.threads.virtual.enabled} is on. While frames wait, a frame whose
+ * {@code event-type} header is listed in {@code uno.outbound.conflate}
+ * replaces the waiting frame of the same type for the same destination, and
+ * goes to the back of the queue; every other frame is kept. A session is
+ * closed as too slow once more than {@code uno.outbound.max-queued} frames
+ * wait, or a frame has waited (or a write has been running) longer than
+ * {@code uno.outbound.max-lag-ms}. Closing a session, for example after an
+ * ERROR frame, waits for the frames queued before it.
+ */
+@Component
+@RequiredArgsConstructor
+public class SessionOutboundQueues implements WebSocketHandlerDecoratorFactory {
+
+    /** Native header carrying the event type of a broadcast frame */
+    public static final String EVENT_TYPE_HEADER = "event-type";
+
+    private static final Logger log = LoggerFactory.getLogger(SessionOutboundQueues.class);
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${uno.outbound.conflate:GAME_UPDATE}")
+    private Set<String> conflated = Set.of("GAME_UPDATE");
+
+    @Value("${uno.outbound.max-queued:256}")
+    private int maxQueued = 256;
+
+    @Value("${uno.outbound.max-lag-ms:5000}")
+    private long maxLagMs = 5000;
+
+    // Replaced by WebSocketConfig with virtual threads when they are enabled
+    private TaskExecutor writers = platformWriters();
+    private final Map<String, QueuedSession> sessions = new ConcurrentHashMap<>();
+
+    private Counter conflatedFrames;
+    private Counter slowDisconnects;
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("uno.ws.outbound.queue.depth", sessions,
+                s -> s.values().stream().mapToInt(QueuedSession::depth).sum())
+            .description("Frames waiting in all session outbound queues")
+            .register(meterRegistry);
+        conflatedFrames = Counter.builder("uno.ws.outbound.conflated")
+            .description("Frames replaced by a newer one before they were written")
+            .register(meterRegistry);
+        slowDisconnects = Counter.builder("uno.ws.outbound.slow.disconnects")
+            .description("Sessions closed for not keeping up")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Sets the executor the session writers run on. Call before sessions open.
+     */
+    public void setWriters(TaskExecutor writers) {
+        this.writers = writers;
+    }
+
+    TaskExecutor getWriters() {
+        return writers;
+    }
+
+    private static TaskExecutor platformWriters() {
+        // A thread per writing session, gone once its queue is drained
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ws-outbound-");
+        executor.setDaemon(true);
+        return executor;
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                QueuedSession queued = new QueuedSession(session);
+                sessions.put(session.getId(), queued);
+                super.afterConnectionEstablished(queued);
+            }
+
+            @Override
+            public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+                super.handleMessage(queued(session), message);
+            }
+
+            @Override
+            public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+                super.handleTransportError(queued(session), exception);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                QueuedSession queued = sessions.remove(session.getId());
+                if (queued != null) {
+                    queued.clear();
+                }
+                super.afterConnectionClosed(queued != null ? queued : session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Queue statistics of every open session, by session id.
+     */
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new TreeMap<>();
+        sessions.forEach((id, session) -> stats.put(id, session.stats()));
+        return stats;
+    }
+
+    private WebSocketSession queued(WebSocketSession session) {
+        QueuedSession queued = sessions.get(session.getId());
+        return queued != null ? queued : session;
+    }
+
+    /**
+     * The key under which {@code message} replaces an earlier waiting frame,
+     * or {@code null} when it has to be kept.
+     */
+    String conflationKey(WebSocketMessage<?> message) {
+        String headers;
+        if (message instanceof TextMessage text) {
+            String payload = text.getPayload();
+            int end = payload.indexOf("\n\n");
+            headers = end >= 0 ? payload.substring(0, end) : payload;
+        } else if (message instanceof BinaryMessage binary) {
+            ByteBuffer payload = binary.getPayload().duplicate();
+            int end = payload.position();
+            while (end + 1 < payload.limit() && !(payload.get(end) == '\n' && payload.get(end + 1) == '\n')) {
+                end++;
+            }
+            byte[] bytes = new byte[end - payload.position()];
+            payload.get(bytes);
+            headers = new String(bytes, StandardCharsets.UTF_8);
+        } else {
+            return null;
+        }
+
+        String destination = null;
+        String eventType = null;
+        for (String line : headers.split("\n")) {
+            if (line.startsWith("destination:")) {
+                destination = line.substring("destination:".length());
+            } else if (line.startsWith(EVENT_TYPE_HEADER + ":")) {
+                eventType = line.substring(EVENT_TYPE_HEADER.length() + 1);
+            }
+        }
+        return destination != null && eventType != null && conflated.contains(eventType)
+                ? destination + " " + eventType
+                : null;
+    }
+
+    /**
+     * A session whose writes go through its own queue.
+     */
+    final class QueuedSession extends WebSocketSessionDecorator {
+
+        // Kept frames are keyed by a number of their own, conflated ones by
+        // destination and event type
+        private final LinkedHashMap<Object, Pending> queue = new LinkedHashMap<>();
+        private long nextKey;
+        private boolean writing;
+        private long writeStartedNanos;
+        private long sent;
+        private long conflations;
+        private boolean closing;
+        // Set by close(); the writer closes the delegate once the queue is drained
+        private CloseStatus closeStatus;
+
+        QueuedSession(WebSocketSession delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void close() throws IOException {
+            close(CloseStatus.NORMAL);
+        }
+
+        @Override
+        public void close(CloseStatus status) throws IOException {
+            String slow;
+            synchronized (this) {
+                if (closing || closeStatus != null) {
+                    return;
+                }
+                closeStatus = status;
+                slow = slowReason();
+                if (slow == null && !writing) {
+                    writing = true;
+                    writers.execute(this::write);
+                }
+            }
+            if (slow != null) {
+                closeSlow(slow);
+            }
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            Object key = conflationKey(message);
+            String slow;
+            synchronized (this) {
+                if (closing || closeStatus != null) {
+                    return;
+                }
+                if (key == null) {
+                    key = nextKey++;
+                } else if (queue.remove(key) != null) {
+                    conflations++;
+                    conflatedFrames.increment();
+                }
+                queue.put(key, new Pending(message, System.nanoTime()));
+
+                slow = slowReason();
+                if (slow == null && !writing) {
+                    writing = true;
+                    writers.execute(this::write);
+                }
+            }
+            if (slow != null) {
+                closeSlow(slow);
+            }
+        }
+
+        private void write() {
+            while (true) {
+                Pending next;
+                CloseStatus close = null;
+                synchronized (this) {
+                    Iterator<Pending> it = queue.values().iterator();
+                    if (closing || !it.hasNext()) {
+                        writing = false;
+                        if (closing || closeStatus == null) {
+                            return;
+                        }
+                        // Everything queued before the close is out
+                        closing = true;
+                        close = closeStatus;
+                        next = null;
+                    } else {
+                        next = it.next();
+                        it.remove();
+                        writeStartedNanos = System.nanoTime();
+                    }
+                }
+                if (close != null) {
+                    closeDelegate(close);
+                    return;
+                }
+                try {
+                    getDelegate().sendMessage(next.message());
+                    synchronized (this) {
+                        sent++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Writing to session {} failed: {}", getId(), e.getMessage());
+                    closeSlow(null);
+                    synchronized (this) {
+                        writing = false;
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Why this session can not keep up, or {@code null} while it does.
+         * Called holding the session's monitor.
+         */
+        private String slowReason() {
+            if (queue.size() > maxQueued) {
+                return queue.size() + " frames queued";
+            }
+            long now = System.nanoTime();
+            long lagMs = 0;
+            if (writing) {
+                lagMs = TimeUnit.NANOSECONDS.toMillis(now - writeStartedNanos);
+            }
+            Iterator<Pending> it = queue.values().iterator();
+            if (it.hasNext()) {
+                lagMs = Math.max(lagMs, TimeUnit.NANOSECONDS.toMillis(now - it.next().queuedNanos()));
+            }
+            return lagMs > maxLagMs ? lagMs + " ms behind" : null;
+        }
+
+        private void closeSlow(String reason) {
+            synchronized (this) {
+                if (closing) {
+                    return;
+                }
+                closing = true;
+                queue.clear();
+            }
+            if (reason != null) {
+                slowDisconnects.increment();
+                log.warn("Closing session {} as a slow consumer: {}", getId(), reason);
+            }
+            closeDelegate(CloseStatus.SESSION_NOT_RELIABLE);
+        }
+
+        private void closeDelegate(CloseStatus status) {
+            try {
+                getDelegate().close(status);
+            } catch (IOException e) {
+                log.debug("Closing session {} failed", getId(), e);
+            }
+        }
+
+        private synchronized int depth() {
+            return queue.size();
+        }
+
+        private synchronized void clear() {
+            closing = true;
+            queue.clear();
+        }
+
+        private synchronized Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("queued", queue.size());
+            stats.put("sent", sent);
+            stats.put("conflated", conflations);
+            Iterator<Pending> it = queue.values().iterator();
+            stats.put("lagMs", it.hasNext()
+                    ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - it.next().queuedNanos())
+                    : 0);
+            stats.put("writing", writing);
+            return stats;
+        }
+    }
+
+    private record Pending(WebSocketMessage<?> message, long queuedNanos) {
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runtime switch for STOMP frame diagnostics. Logging can be turned on for
+ * everything, for single sessions or for single games, and sampled so only
+ * every n-th matching frame is logged.
+ *
+ * <p>Callers guard every log statement with {@link #enabledFor}. While nothing
+ * is switched on that is a single volatile read, so the disabled path builds
+ * no strings and allocates nothing.
+ */
+@Component
+public class StompDiagnostics {
+
+    private static final Logger log = LoggerFactory.getLogger(StompDiagnostics.class);
+
+    private static final String GAME_TOPIC = "/topic/game/";
+    private static final String GAME_QUEUE = "/queue/game/";
+
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+    private final Set<String> games = ConcurrentHashMap.newKeySet();
+    private final AtomicLong frames = new AtomicLong();
+
+    private volatile boolean all;
+    private volatile boolean active;
+    private volatile int sampleRate;
+
+    public StompDiagnostics() {
+        this(false, 1);
+    }
+
+    @Autowired
+    public StompDiagnostics(@Value("${uno.stomp.diagnostics.enabled:false}") boolean enabled,
+            @Value("${uno.stomp.diagnostics.sample-rate:1}") int sampleRate) {
+        this.all = enabled;
+        this.sampleRate = Math.max(1, sampleRate);
+        refresh();
+    }
+
+    /**
+     * Whether a frame of {@code sessionId} to or from {@code destination}
+     * should be logged. Either argument may be {@code null}.
+     */
+    public boolean enabledFor(String sessionId, String destination) {
+        if (!active) {
+            return false;
+        }
+        boolean selected = all
+            || (sessionId != null && sessions.contains(sessionId))
+            || (!games.isEmpty() && isGameSelected(destination));
+        return selected && sampled();
+    }
+
+    /**
+     * Whether frames not tied to a session or destination should be logged,
+     * which is only the case when diagnostics are on for everything.
+     */
+    public boolean enabled() {
+        return active && all && sampled();
+    }
+
+    /**
+     * Logs one diagnostic line. Only call this behind {@link #enabledFor} or
+     * {@link #enabled()}.
+     */
+    public void log(String format, Object... arguments) {
+        log.info(format, arguments);
+    }
+
+    public void setAll(boolean enabled) {
+        all = enabled;
+        refresh();
+    }
+
+    public void enableSession(String sessionId) {
+        sessions.add(sessionId);
+        refresh();
+    }
+
+    public void disableSession(String sessionId) {
+        sessions.remove(sessionId);
+        refresh();
+    }
+
+    public void enableGame(String gameCode) {
+        games.add(gameCode);
+        refresh();
+    }
+
+    public void disableGame(String gameCode) {
+        games.remove(gameCode);
+        refresh();
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    /**
+     * Turns everything off again.
+     */
+    public void reset() {
+        all = false;
+        sessions.clear();
+        games.clear();
+        refresh();
+    }
+
+    public boolean isAll() {
+        return all;
+    }
+
+    public Set<String> getSessions() {
+        return Set.copyOf(sessions);
+    }
+
+    public Set<String> getGames() {
+        return Set.copyOf(games);
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    private void refresh() {
+        active = all || !sessions.isEmpty() || !games.isEmpty();
+    }
+
+    private boolean sampled() {
+        int rate = sampleRate;
+        return rate == 1 || frames.incrementAndGet() % rate == 0;
+    }
+
+    private boolean isGameSelected(String destination) {
+        String gameCode = gameCodeOf(destination);
+        return gameCode != null && games.contains(gameCode);
+    }
+
+    /**
+     * Extracts the game code from a {@code /topic/game/{code}} or
+     * {@code /queue/game/{code}/...} destination.
+     */
+    static String gameCodeOf(String destination) {
+        if (destination == null) {
+            return null;
+        }
+        int start;
+        if (destination.startsWith(GAME_TOPIC)) {
+            start = GAME_TOPIC.length();
+        } else if (destination.startsWith(GAME_QUEUE)) {
+            start = GAME_QUEUE.length();
+        } else {
+            return null;
+        }
+        int end = destination.indexOf('/', start);
+        return destination.substring(start, end < 0 ? destination.length() : end);
+    }
+}
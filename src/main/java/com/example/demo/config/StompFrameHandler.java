@@ -1,5 +1,7 @@
 package com.example.demo.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
@@ -18,13 +20,20 @@ import java.nio.charset.StandardCharsets;
 @Component
 public class StompFrameHandler extends WebSocketHandlerDecorator {
 
-    public StompFrameHandler(WebSocketHandler delegate) {
+    private static final Logger log = LoggerFactory.getLogger(StompFrameHandler.class);
+
+    private final StompDiagnostics diagnostics;
+
+    public StompFrameHandler(WebSocketHandler delegate, StompDiagnostics diagnostics) {
         super(delegate);
+        this.diagnostics = diagnostics;
     }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        System.out.println("🔌 STOMP Frame Handler - Connection established: " + session.getId());
+        if (diagnostics.enabledFor(session.getId(), null)) {
+            diagnostics.log("STOMP connection established: {}", session.getId());
+        }
         super.afterConnectionEstablished(session);
     }
 
@@ -34,11 +43,16 @@ public class StompFrameHandler extends WebSocketHandlerDecorator {
             TextMessage textMessage = (TextMessage) message;
             String payload = textMessage.getPayload();
             
-            System.out.println("📨 STOMP Frame Handler - Received message: " + payload.substring(0, Math.min(100, payload.length())));
+            boolean trace = diagnostics.enabledFor(session.getId(), null);
+            if (trace) {
+                diagnostics.log("STOMP frame received on {}: {} chars", session.getId(), payload.length());
+            }
             
             // Ensure incoming STOMP frames are properly handled
             if (!payload.endsWith("\0")) {
-                System.out.println("⚠️ STOMP Frame Handler - Adding missing null terminator to incoming frame");
+                if (trace) {
+                    diagnostics.log("Adding missing null terminator to incoming frame on {}", session.getId());
+                }
                 payload = payload + "\0";
                 message = new TextMessage(payload);
             }
@@ -49,31 +63,16 @@ public class StompFrameHandler extends WebSocketHandlerDecorator {
 
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
-        System.err.println("❌ STOMP Frame Handler - Transport error: " + exception.getMessage());
+        log.warn("STOMP transport error on {}: {}", session.getId(), exception.getMessage());
         super.handleTransportError(session, exception);
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
-        System.out.println("🔌 STOMP Frame Handler - Connection closed: " + session.getId() + " - " + closeStatus);
-        super.afterConnectionClosed(session, closeStatus);
-    }
-
-    /**
-     * Ensures STOMP frame has proper null termination
-     */
-    public static String ensureStompFrameTermination(String frame) {
-        if (frame == null || frame.isEmpty()) {
-            return frame;
-        }
-        
-        // Check if frame already ends with null terminator
-        if (!frame.endsWith("\0")) {
-            System.out.println("🔧 STOMP Frame Handler - Adding null terminator to frame");
-            return frame + "\0";
+        if (diagnostics.enabledFor(session.getId(), null)) {
+            diagnostics.log("STOMP connection closed: {} - {}", session.getId(), closeStatus);
         }
-        
-        return frame;
+        super.afterConnectionClosed(session, closeStatus);
     }
 
     /**
@@ -111,8 +110,6 @@ public class StompFrameHandler extends WebSocketHandlerDecorator {
         // Add null terminator (STOMP protocol requirement)
         frame.append("\0");
         
-        System.out.println("🔧 STOMP Frame Handler - Created frame with null terminator: " + frame.length() + " bytes");
-        
         return frame.toString();
     }
 }
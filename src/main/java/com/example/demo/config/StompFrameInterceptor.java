@@ -1,5 +1,8 @@
 package com.example.demo.config;
 
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.stomp.StompCommand;
@@ -8,73 +11,63 @@ import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * STOMP Frame Interceptor to fix frame parsing issues
  * Ensures proper content-length headers and frame assembly
  */
 @Component
+@RequiredArgsConstructor
 public class StompFrameInterceptor implements ChannelInterceptor {
 
+    private static final Logger log = LoggerFactory.getLogger(StompFrameInterceptor.class);
+
+    private static final int PREVIEW_LENGTH = 100;
+
+    private final StompDiagnostics diagnostics;
+
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
         StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
 
-        System.out
-                .println("🔍 STOMP Interceptor - preSend called, accessor: " + (accessor != null ? "present" : "null"));
-
         if (accessor != null) {
             StompCommand command = accessor.getCommand();
-            System.out.println("🔍 STOMP Command: " + command);
+            boolean trace = diagnostics.enabledFor(accessor.getSessionId(), accessor.getDestination());
 
             // Handle outbound messages (server to client)
             if (command == StompCommand.MESSAGE) {
-                System.out.println("🔍 Processing MESSAGE frame...");
-
                 // Ensure content-length header is set for proper frame parsing
                 Object payload = message.getPayload();
-                System.out
-                        .println("🔍 Payload type: " + (payload != null ? payload.getClass().getSimpleName() : "null"));
 
                 if (payload instanceof byte[]) {
                     byte[] payloadBytes = (byte[]) payload;
 
-                    // Calculate correct content-length using UTF-8 encoding
-                    String payloadString = new String(payloadBytes, java.nio.charset.StandardCharsets.UTF_8);
-                    byte[] utf8Bytes = payloadString.getBytes(java.nio.charset.StandardCharsets.UTF_8);
-
-                    // Set the correct content-length
-                    accessor.setContentLength(utf8Bytes.length);
-
-                    System.out.println("📦 STOMP Frame - Original Length: " + payloadBytes.length + " bytes");
-                    System.out.println("📦 STOMP Frame - UTF-8 Length: " + utf8Bytes.length + " bytes");
-                    System.out.println("📦 STOMP Frame - Content-Length Set: " + utf8Bytes.length + " bytes");
-
-                    // Detailed frame inspection for debugging
-                    inspectStompFrame(accessor, payloadBytes);
-                    System.out.println("📦 STOMP Frame - Payload Preview: "
-                            + payloadString.substring(0, Math.min(100, payloadString.length())));
+                    // The payload already is UTF-8
+                    accessor.setContentLength(payloadBytes.length);
 
-                    // Log frame details for debugging
-                    String destination = accessor.getDestination();
-                    if (destination != null) {
-                        System.out.println("📦 STOMP Frame - Destination: " + destination);
+                    if (trace) {
+                        inspectStompFrame(accessor, payloadBytes);
                     }
                 } else if (payload instanceof String) {
                     String payloadString = (String) payload;
-                    byte[] utf8Bytes = payloadString.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    byte[] utf8Bytes = payloadString.getBytes(StandardCharsets.UTF_8);
 
                     // Set the correct content-length using UTF-8 encoding
                     accessor.setContentLength(utf8Bytes.length);
 
-                    System.out.println("📦 STOMP Frame - Content-Length (String): " + utf8Bytes.length + " bytes");
-                    System.out.println("📦 STOMP Frame - String Payload: "
-                            + payloadString.substring(0, Math.min(100, payloadString.length())));
+                    if (trace) {
+                        diagnostics.log("STOMP MESSAGE to {}: {} bytes, payload: {}", accessor.getDestination(),
+                                utf8Bytes.length, preview(payloadString));
+                    }
                 }
             }
 
             // Handle connection frames
             if (command == StompCommand.CONNECT || command == StompCommand.STOMP) {
-                System.out.println("🔌 STOMP CONNECT frame intercepted");
+                if (trace) {
+                    diagnostics.log("STOMP CONNECT from session {}", accessor.getSessionId());
+                }
                 // Set heartbeat if not already set
                 if (accessor.getHeartbeat() == null) {
                     accessor.setHeartbeat(10000, 10000);
@@ -82,9 +75,14 @@ public class StompFrameInterceptor implements ChannelInterceptor {
             }
 
             // Handle subscription frames
-            if (command == StompCommand.SUBSCRIBE) {
-                String destination = accessor.getDestination();
-                System.out.println("📡 STOMP SUBSCRIBE to: " + destination);
+            if (command == StompCommand.SUBSCRIBE && trace) {
+                diagnostics.log("STOMP SUBSCRIBE from session {} to {}", accessor.getSessionId(),
+                        accessor.getDestination());
+            }
+
+            if (command == StompCommand.SEND && trace) {
+                diagnostics.log("STOMP SEND from session {} to {}", accessor.getSessionId(),
+                        accessor.getDestination());
             }
         }
 
@@ -96,7 +94,7 @@ public class StompFrameInterceptor implements ChannelInterceptor {
         if (!sent) {
             StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
             if (accessor != null) {
-                System.err.println("❌ STOMP Frame failed to send: " + accessor.getCommand());
+                log.warn("STOMP frame failed to send: {} to {}", accessor.getCommand(), accessor.getDestination());
             }
         }
     }
@@ -106,68 +104,24 @@ public class StompFrameInterceptor implements ChannelInterceptor {
         return true;
     }
 
-    @Override
-    public Message<?> postReceive(Message<?> message, MessageChannel channel) {
-        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
-
-        if (accessor != null) {
-            StompCommand command = accessor.getCommand();
-
-            // Log incoming frames for debugging
-            if (command == StompCommand.SEND) {
-                String destination = accessor.getDestination();
-                System.out.println("📨 STOMP SEND to: " + destination);
-            }
-        }
-
-        return message;
-    }
-
     /**
      * Detailed STOMP frame inspection for debugging
      */
     private void inspectStompFrame(StompHeaderAccessor accessor, byte[] payloadBytes) {
-        System.out.println("🔍 === DETAILED STOMP FRAME INSPECTION ===");
-
-        // Check frame structure
-        String payloadString = new String(payloadBytes, java.nio.charset.StandardCharsets.UTF_8);
-
-        // Check for null terminator
-        boolean hasNullTerminator = payloadString.endsWith("\0");
-        System.out.println("🔍 Frame has null terminator: " + hasNullTerminator);
-
-        if (hasNullTerminator) {
-            String contentWithoutNull = payloadString.substring(0, payloadString.length() - 1);
-            System.out.println("🔍 Content without null terminator: " + contentWithoutNull.length() + " chars");
-            System.out.println("🔍 Content-length header: " + accessor.getContentLength());
-
-            // Verify content-length accuracy
-            byte[] contentBytes = contentWithoutNull.getBytes(java.nio.charset.StandardCharsets.UTF_8);
-            boolean contentLengthAccurate = (accessor.getContentLength() != null &&
-                    accessor.getContentLength() == contentBytes.length);
-            System.out.println("🔍 Content-length accurate: " + contentLengthAccurate);
-
-            if (!contentLengthAccurate) {
-                System.out.println("⚠️ Content-length mismatch! Header: " + accessor.getContentLength() +
-                        ", Actual: " + contentBytes.length);
-            }
-        }
-
-        // Check for extra characters after content
-        if (payloadString.length() > 1) {
-            char lastChar = payloadString.charAt(payloadString.length() - 1);
-            char secondLastChar = payloadString.charAt(payloadString.length() - 2);
-            System.out.println("🔍 Last character: '" + (lastChar == '\0' ? "\\0" : lastChar) + "' (code: "
-                    + (int) lastChar + ")");
-            System.out.println("🔍 Second last character: '" + (secondLastChar == '\0' ? "\\0" : secondLastChar)
-                    + "' (code: " + (int) secondLastChar + ")");
-        }
-
-        // Frame headers inspection
-        System.out.println("🔍 Destination: " + accessor.getDestination());
-        System.out.println("🔍 Content-Type: " + accessor.getContentType());
-        System.out.println("🔍 Message ID: " + accessor.getMessageId());
+        int length = payloadBytes.length;
+        boolean hasNullTerminator = StompProtocolHandler.isTerminated(payloadBytes);
+        int contentLength = hasNullTerminator ? length - 1 : length;
+        Integer header = accessor.getContentLength();
+
+        diagnostics.log("STOMP MESSAGE to {}: {} bytes, null terminator: {}, content-length header: {}{}",
+                accessor.getDestination(), length, hasNullTerminator, header,
+                header != null && header == contentLength ? "" : " (actual " + contentLength + ")");
+        diagnostics.log("STOMP MESSAGE content-type: {}, message-id: {}, payload: {}",
+                accessor.getContentType(), accessor.getMessageId(),
+                preview(new String(payloadBytes, 0, contentLength, StandardCharsets.UTF_8)));
+    }
 
-        System.out.println("🔍 === END FRAME INSPECTION ===");
+    private static String preview(String payload) {
+        return payload.length() <= PREVIEW_LENGTH ? payload : payload.substring(0, PREVIEW_LENGTH) + "...";
     }
 }
@@ -1,13 +1,18 @@
 package com.example.demo.config;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.converter.AbstractMessageConverter;
 import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.util.MimeType;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -17,10 +22,15 @@ import java.nio.charset.StandardCharsets;
 @Component
 public class StompMessageConverter extends AbstractMessageConverter {
 
+    public static final MimeType JSON = new MimeType("application", "json", StandardCharsets.UTF_8);
+
     private final ObjectMapper objectMapper;
+    private final CBORFactory cborFactory = new CBORFactory();
+    private final StompDiagnostics diagnostics;
 
-    public StompMessageConverter() {
-        super(new MimeType("application", "json", StandardCharsets.UTF_8));
+    public StompMessageConverter(StompDiagnostics diagnostics) {
+        super(JSON);
+        this.diagnostics = diagnostics;
         this.objectMapper = new ObjectMapper();
 
         // Configure ObjectMapper for optimal JSON output
@@ -45,13 +55,13 @@ public class StompMessageConverter extends AbstractMessageConverter {
         Object payload = message.getPayload();
 
         if (payload instanceof byte[]) {
+            byte[] json = (byte[]) payload;
+            if (diagnostics.enabledFor(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()), null)) {
+                diagnostics.log("STOMP JSON received: {} bytes for {}", json.length, targetClass.getSimpleName());
+            }
             try {
-                String json = new String((byte[]) payload, StandardCharsets.UTF_8);
-                System.out
-                        .println("📥 STOMP JSON Received: " + json.substring(0, Math.min(100, json.length())) + "...");
                 return objectMapper.readValue(json, targetClass);
             } catch (Exception e) {
-                System.err.println("❌ Error parsing JSON from STOMP frame: " + e.getMessage());
                 throw new MessageConversionException("Failed to convert JSON message", e);
             }
         }
@@ -61,24 +71,50 @@ public class StompMessageConverter extends AbstractMessageConverter {
 
     @Override
     protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
-        try {
-            String json = objectMapper.writeValueAsString(payload);
-            byte[] jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+        if (payload instanceof byte[]) {
+            // Already encoded, see encode()
+            return payload;
+        }
+        return encode(payload);
+    }
 
-            System.out.println("📤 STOMP JSON Sending: " + json.substring(0, Math.min(100, json.length())) + "...");
-            System.out.println("📤 STOMP Frame Size: " + jsonBytes.length + " bytes");
-            System.out.println("📤 STOMP JSON Full Length: " + json.length() + " characters");
-            System.out.println("📤 STOMP UTF-8 Byte Length: " + jsonBytes.length + " bytes");
+    /**
+     * Serializes {@code payload} into a JSON frame body. The result may be
+     * shared by any number of messages and must not be modified. It carries
+     * no null terminator: the STOMP encoder ends every frame with one, and a
+     * terminator inside the body would count towards its content-length.
+     */
+    public byte[] encode(Object payload) {
+        // UTF-8 bytes straight from Jackson for Flutter compatibility
+        try {
+            byte[] jsonBytes = objectMapper.writeValueAsBytes(payload);
 
-            // Log the exact JSON for debugging
-            System.out.println("📤 STOMP Full JSON: " + json);
+            if (diagnostics.enabled()) {
+                diagnostics.log("STOMP JSON sending: {} bytes: {}", jsonBytes.length,
+                        new String(jsonBytes, StandardCharsets.UTF_8));
+            }
 
-            // Ensure proper UTF-8 encoding for Flutter compatibility
             return jsonBytes;
 
         } catch (Exception e) {
-            System.err.println("❌ Error converting object to JSON: " + e.getMessage());
             throw new MessageConversionException("Failed to convert object to JSON", e);
         }
     }
+
+    /**
+     * Re-encodes a JSON frame body as CBOR. The JSON is streamed token by
+     * token into the CBOR generator, so no object tree is built; anything
+     * after the first value (such as a null terminator) is ignored.
+     */
+    public byte[] toCbor(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+        try (JsonParser parser = objectMapper.getFactory().createParser(json);
+                JsonGenerator generator = cborFactory.createGenerator(out)) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        } catch (Exception e) {
+            throw new MessageConversionException("Failed to convert JSON message to CBOR", e);
+        }
+        return out.toByteArray();
+    }
 }
@@ -1,5 +1,8 @@
 package com.example.demo.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.stomp.StompCommand;
@@ -10,14 +13,32 @@ import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
  * STOMP Protocol Handler to ensure proper frame termination
- * Fixes STOMP protocol compliance by adding null terminators
+ *
+ * <p>The STOMP encoder writes the content-length header and the null
+ * terminator of every frame itself, so bodies must not carry one. A body of
+ * an outbound MESSAGE, CONNECTED or ERROR frame that still ends with a null
+ * is copied once without it; every other frame passes through unchanged.
  */
 @Component
 public class StompProtocolHandler implements ChannelInterceptor {
 
+    private static final Logger log = LoggerFactory.getLogger(StompProtocolHandler.class);
+
+    private final StompDiagnostics diagnostics;
+
+    public StompProtocolHandler() {
+        this(new StompDiagnostics());
+    }
+
+    @Autowired
+    public StompProtocolHandler(StompDiagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
         StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
@@ -25,100 +46,18 @@ public class StompProtocolHandler implements ChannelInterceptor {
         if (accessor != null) {
             StompCommand command = accessor.getCommand();
 
-            // Handle outbound MESSAGE frames (server to client)
-            if (command == StompCommand.MESSAGE) {
-                System.out.println("🔧 STOMP Protocol Handler - Processing MESSAGE frame for null termination");
-
-                Object payload = message.getPayload();
-
-                if (payload instanceof byte[]) {
-                    byte[] payloadBytes = (byte[]) payload;
-
-                    // Convert to string to check for null termination
-                    String payloadString = new String(payloadBytes, StandardCharsets.UTF_8);
-
-                    // Ensure the frame ends with null terminator
-                    if (!payloadString.endsWith("\0")) {
-                        System.out.println("🔧 STOMP Protocol Handler - Adding null terminator to MESSAGE frame");
-
-                        // Add null terminator
-                        String terminatedPayload = payloadString + "\0";
-                        byte[] terminatedBytes = terminatedPayload.getBytes(StandardCharsets.UTF_8);
-
-                        // Create new accessor with updated content-length (avoid immutable header
-                        // issue)
-                        StompHeaderAccessor newAccessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
-                        // Copy essential headers
-                        if (accessor.getDestination() != null) {
-                            newAccessor.setDestination(accessor.getDestination());
-                        }
-                        if (accessor.getContentType() != null) {
-                            newAccessor.setContentType(accessor.getContentType());
-                        }
-                        newAccessor.setContentLength(terminatedBytes.length - 1); // Content-length excludes null
-                                                                                  // terminator
-
-                        // Create new message with terminated payload and updated headers
-                        message = MessageBuilder.createMessage(terminatedBytes, newAccessor.getMessageHeaders());
-
-                        System.out.println("✅ STOMP Protocol Handler - Null terminator added, frame size: "
-                                + terminatedBytes.length + " bytes");
-                    } else {
-                        System.out.println("✅ STOMP Protocol Handler - Frame already has null terminator");
-                    }
-                } else if (payload instanceof String) {
-                    String payloadString = (String) payload;
-
-                    // Ensure the frame ends with null terminator
-                    if (!payloadString.endsWith("\0")) {
-                        System.out
-                                .println("🔧 STOMP Protocol Handler - Adding null terminator to STRING MESSAGE frame");
-
-                        // Add null terminator
-                        String terminatedPayload = payloadString + "\0";
-                        byte[] terminatedBytes = terminatedPayload.getBytes(StandardCharsets.UTF_8);
-
-                        // Create new accessor with updated content-length (avoid immutable header
-                        // issue)
-                        StompHeaderAccessor newAccessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
-                        // Copy essential headers
-                        if (accessor.getDestination() != null) {
-                            newAccessor.setDestination(accessor.getDestination());
-                        }
-                        if (accessor.getContentType() != null) {
-                            newAccessor.setContentType(accessor.getContentType());
-                        }
-                        newAccessor.setContentLength(terminatedBytes.length - 1); // Content-length excludes null
-                                                                                  // terminator
-
-                        // Create new message with terminated payload and updated headers
-                        message = MessageBuilder.createMessage(terminatedBytes, newAccessor.getMessageHeaders());
-
-                        System.out.println("✅ STOMP Protocol Handler - Null terminator added to string frame");
-                    }
-                }
-            }
-
-            // Handle other frame types that might need null termination
-            else if (command == StompCommand.CONNECTED || command == StompCommand.ERROR) {
-                System.out.println("🔧 STOMP Protocol Handler - Processing " + command + " frame");
-
+            // Outbound frames (server to client) whose body could end up
+            // terminated twice
+            if (command == StompCommand.MESSAGE || command == StompCommand.CONNECTED
+                    || command == StompCommand.ERROR) {
                 Object payload = message.getPayload();
-                if (payload instanceof byte[]) {
-                    byte[] payloadBytes = (byte[]) payload;
-                    String payloadString = new String(payloadBytes, StandardCharsets.UTF_8);
-
-                    if (!payloadString.endsWith("\0")) {
-                        System.out
-                                .println("🔧 STOMP Protocol Handler - Adding null terminator to " + command + " frame");
-
-                        String terminatedPayload = payloadString + "\0";
-                        byte[] terminatedBytes = terminatedPayload.getBytes(StandardCharsets.UTF_8);
 
-                        message = MessageBuilder.createMessage(terminatedBytes, message.getHeaders());
-
-                        System.out.println("✅ STOMP Protocol Handler - " + command + " frame terminated");
+                if (payload instanceof byte[] payloadBytes) {
+                    if (isTerminated(payloadBytes)) {
+                        message = stripTerminator(message, accessor, payloadBytes);
                     }
+                } else if (payload instanceof String payloadString && payloadString.endsWith("\0")) {
+                    message = stripTerminator(message, accessor, payloadString.getBytes(StandardCharsets.UTF_8));
                 }
             }
         }
@@ -128,37 +67,34 @@ public class StompProtocolHandler implements ChannelInterceptor {
 
     @Override
     public void postSend(Message<?> message, MessageChannel channel, boolean sent) {
-        if (sent) {
+        if (!sent) {
             StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
-            if (accessor != null && accessor.getCommand() == StompCommand.MESSAGE) {
-                System.out
-                        .println("✅ STOMP Protocol Handler - MESSAGE frame sent successfully with proper termination");
-            }
-        } else {
-            System.err.println("❌ STOMP Protocol Handler - Frame failed to send");
+            log.warn("STOMP frame failed to send: {}", accessor != null ? accessor.getCommand() : null);
         }
     }
 
     /**
-     * Utility method to ensure any STOMP frame has proper null termination
+     * Whether {@code payload} already ends with the null terminator.
      */
-    public static byte[] ensureStompFrameTermination(byte[] frameBytes) {
-        if (frameBytes == null || frameBytes.length == 0) {
-            return frameBytes;
-        }
+    public static boolean isTerminated(byte[] payload) {
+        return payload.length > 0 && payload[payload.length - 1] == 0;
+    }
 
-        // Check if frame already ends with null terminator
-        if (frameBytes[frameBytes.length - 1] != 0) {
-            System.out.println("🔧 STOMP Protocol Handler - Adding null terminator to frame bytes");
+    private Message<byte[]> stripTerminator(Message<?> message, StompHeaderAccessor accessor, byte[] content) {
+        byte[] body = Arrays.copyOf(content, content.length - 1);
 
-            // Create new array with null terminator
-            byte[] terminatedFrame = new byte[frameBytes.length + 1];
-            System.arraycopy(frameBytes, 0, terminatedFrame, 0, frameBytes.length);
-            terminatedFrame[frameBytes.length] = 0; // Add null terminator
+        // Keep every header (session, subscription, message id); a
+        // content-length set upstream must match the shorter body
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(message);
+        if (headers.getContentLength() != null) {
+            headers.setContentLength(body.length);
+        }
 
-            return terminatedFrame;
+        if (diagnostics.enabledFor(accessor.getSessionId(), accessor.getDestination())) {
+            diagnostics.log("STOMP {} to {} had a null terminated body, body size: {} bytes",
+                    accessor.getCommand(), accessor.getDestination(), body.length);
         }
 
-        return frameBytes;
+        return MessageBuilder.createMessage(body, headers.getMessageHeaders());
     }
 }
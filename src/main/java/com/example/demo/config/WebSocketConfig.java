@@ -1,10 +1,19 @@
 package com.example.demo.config;
 
+import com.example.demo.broker.EmbeddedStompBroker;
+import com.example.demo.service.GameEventReplay;
+import com.example.demo.service.LobbyBroadcaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.EventListener;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -19,6 +28,8 @@ import java.util.List;
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final Logger log = LoggerFactory.getLogger(WebSocketConfig.class);
+
     @Autowired
     private StompFrameInterceptor stompFrameInterceptor;
 
@@ -28,11 +39,77 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Autowired
     private StompProtocolHandler stompProtocolHandler;
 
+    @Autowired
+    private StompDiagnostics stompDiagnostics;
+
+    @Autowired
+    private WireFormatNegotiator wireFormatNegotiator;
+
+    @Autowired
+    private GameEventReplay gameEventReplay;
+
+    @Autowired
+    private LobbyBroadcaster lobbyBroadcaster;
+
+    @Autowired
+    private SessionOutboundQueues sessionOutboundQueues;
+
+    @Autowired
+    private ObjectProvider<EmbeddedStompBroker> embeddedStompBroker;
+
+    // simple: in-memory broker on this node; relay: an external STOMP broker
+    // shared by all nodes
+    @Value("${uno.broker.mode:simple}")
+    private String brokerMode;
+
+    // Run the client channels, and with them @MessageMapping handlers, on
+    // virtual threads; Spring Boot moves Tomcat onto them with the same flag
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${uno.broker.relay.host:127.0.0.1}")
+    private String relayHost;
+
+    @Value("${uno.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${uno.broker.relay.client-login:guest}")
+    private String clientLogin;
+
+    @Value("${uno.broker.relay.client-passcode:guest}")
+    private String clientPasscode;
+
+    @Value("${uno.broker.relay.system-login:guest}")
+    private String systemLogin;
+
+    @Value("${uno.broker.relay.system-passcode:guest}")
+    private String systemPasscode;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple memory-based message broker to carry messages back to the
-        // client
-        config.enableSimpleBroker("/topic", "/queue");
+        if (isRelay()) {
+            // The embedded broker may have picked a free port
+            EmbeddedStompBroker embedded = embeddedStompBroker.getIfAvailable();
+            int port = embedded != null ? embedded.getPort() : relayPort;
+
+            // Every node forwards /topic and /queue to the broker, so a broadcast
+            // reaches subscribers on all nodes. User destinations of sessions on
+            // other nodes are resolved through the broker as well.
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(port)
+                    .setClientLogin(clientLogin)
+                    .setClientPasscode(clientPasscode)
+                    .setSystemLogin(systemLogin)
+                    .setSystemPasscode(systemPasscode)
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            log.info("Relaying /topic and /queue to STOMP broker {}:{}", relayHost, port);
+        } else {
+            // Enable a simple memory-based message broker to carry messages back to the
+            // client
+            config.enableSimpleBroker("/topic", "/queue");
+        }
 
         // Designate the "/app" prefix for messages that are bound for @MessageMapping
         // methods
@@ -48,7 +125,8 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // compatible)
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
-                .setHandshakeHandler(null); // Use default handshake handler
+                .setHandshakeHandler(null) // Use default handshake handler
+                .addInterceptors(wireFormatNegotiator.binaryTransport()); // Binary frames can be used here
 
         // SockJS endpoint for web browsers that need fallback
         registry.addEndpoint("/ws-sockjs")
@@ -66,22 +144,46 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setMessageSizeLimit(64 * 1024) // 64KB max message size
                 .setSendBufferSizeLimit(512 * 1024) // 512KB send buffer
                 .setSendTimeLimit(20 * 1000) // 20 second send timeout
-                .setTimeToFirstMessage(30 * 1000); // 30 second first message timeout
+                .setTimeToFirstMessage(30 * 1000) // 30 second first message timeout
+                // Each session writes from its own queue; slow ones are closed there
+                .addDecoratorFactory(sessionOutboundQueues);
+        if (virtualThreads) {
+            // Session writers block on the socket; otherwise they run on platform threads
+            sessionOutboundQueues.setWriters(new VirtualThreadTaskExecutor("ws-outbound-"));
+        }
     }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         // Add interceptors for inbound messages (client to server)
-        registration.interceptors(stompFrameInterceptor, stompProtocolHandler);
+        // Game event replay and the lobby snapshot run once the broker has
+        // handled a SUBSCRIBE
+        registration.interceptors(stompFrameInterceptor, stompProtocolHandler, wireFormatNegotiator,
+                gameEventReplay, lobbyBroadcaster);
+        if (virtualThreads) {
+            // Handlers block on JDBC; a virtual thread per message instead of a pool sized to the CPUs
+            registration.executor(new VirtualThreadTaskExecutor("clientInboundChannel-"));
+        }
     }
 
     @Override
     public void configureClientOutboundChannel(ChannelRegistration registration) {
         // Add interceptors for outbound messages (server to client)
-        // STOMP Protocol Handler MUST be first to ensure null termination
-        registration.interceptors(stompProtocolHandler, stompFrameInterceptor);
-        // Set task executor for better performance
-        registration.taskExecutor().corePoolSize(4).maxPoolSize(8);
+        // STOMP Protocol Handler MUST be first to ensure null termination;
+        // the wire format negotiator re-encodes bodies last
+        if (isRelay()) {
+            // Frames from the broker already carry their own length and
+            // terminator; a terminator added here would end up in the body
+            registration.interceptors(stompFrameInterceptor, wireFormatNegotiator);
+        } else {
+            registration.interceptors(stompProtocolHandler, stompFrameInterceptor, wireFormatNegotiator);
+        }
+        if (virtualThreads) {
+            registration.executor(new VirtualThreadTaskExecutor("clientOutboundChannel-"));
+        } else {
+            // Set task executor for better performance
+            registration.taskExecutor().corePoolSize(4).maxPoolSize(8);
+        }
     }
 
     @Override
@@ -89,17 +191,28 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Clear default converters and add our custom one first
         messageConverters.clear();
         messageConverters.add(stompMessageConverter);
-        System.out.println("🔧 Custom STOMP Message Converter configured (replacing defaults)");
+        log.info("Custom STOMP message converter configured (replacing defaults)");
         return true; // Don't add default converters
     }
 
+    private boolean isRelay() {
+        return "relay".equalsIgnoreCase(brokerMode);
+    }
+
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
-        System.out.println("🔌 WebSocket connection established: " + event.getMessage());
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (stompDiagnostics.enabledFor(sessionId, null)) {
+            stompDiagnostics.log("WebSocket connection established: {}", sessionId);
+        }
     }
 
     @EventListener
     public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
-        System.out.println("🔌 WebSocket connection closed: " + event.getMessage());
+        if (stompDiagnostics.enabledFor(event.getSessionId(), null)) {
+            stompDiagnostics.log("WebSocket connection closed: {} ({})", event.getSessionId(), event.getCloseStatus());
+        }
+        // A closed session can not be traced any more
+        stompDiagnostics.disableSession(event.getSessionId());
     }
 }
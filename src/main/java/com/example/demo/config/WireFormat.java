@@ -0,0 +1,30 @@
+package com.example.demo.config;
+
+/**
+ * Encoding of outbound STOMP message bodies, chosen per session or per
+ * subscription with the {@code x-wire-format} header.
+ */
+public enum WireFormat {
+
+    /** UTF-8 JSON text frames, the default */
+    JSON,
+
+    /** CBOR in binary frames; native WebSocket sessions only */
+    CBOR;
+
+    /**
+     * Parses a header value case-insensitively; unknown or missing values
+     * yield {@code null}.
+     */
+    public static WireFormat of(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (WireFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value.trim())) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
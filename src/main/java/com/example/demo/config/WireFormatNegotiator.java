@@ -0,0 +1,215 @@
+package com.example.demo.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Negotiates the wire format of outbound message bodies.
+ *
+ * <p>A client asks for CBOR with an {@code x-wire-format: cbor} header on
+ * CONNECT (for the whole session) or on SUBSCRIBE (for one subscription,
+ * overriding the session). Only sessions on the native {@code /ws} endpoint
+ * can have it: SockJS carries text only, so requests from there stay JSON.
+ *
+ * <p>Bodies are still serialized once as JSON. Broadcasts carry a
+ * {@link SharedCbor} next to the JSON, which the broker copies to every
+ * subscriber's message: the first CBOR subscriber transcodes the body into it
+ * and every other one reuses the result, so the cost stays per broadcast, not
+ * per subscriber. Messages without one are transcoded on their own. CBOR
+ * frames go out as binary WebSocket messages with content-type
+ * {@code application/octet-stream} and an {@code x-wire-format: cbor} header.
+ */
+@Component
+@RequiredArgsConstructor
+public class WireFormatNegotiator implements ChannelInterceptor {
+
+    public static final String HEADER = "x-wire-format";
+
+    /** Message header holding the {@link SharedCbor} of a broadcast */
+    public static final String SHARED_CBOR = WireFormatNegotiator.class.getName() + ".SHARED_CBOR";
+
+    /** Session attribute set on handshakes that can carry binary frames */
+    static final String BINARY_TRANSPORT = WireFormatNegotiator.class.getName() + ".BINARY_TRANSPORT";
+
+    private final StompMessageConverter stompMessageConverter;
+    private final StompDiagnostics diagnostics;
+
+    // Sessions that asked for something other than the JSON default
+    private final Map<String, SessionFormats> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Handshake interceptor for endpoints whose sessions can receive binary
+     * frames.
+     */
+    public HandshakeInterceptor binaryTransport() {
+        return new HandshakeInterceptor() {
+            @Override
+            public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                    WebSocketHandler wsHandler, Map<String, Object> attributes) {
+                attributes.put(BINARY_TRANSPORT, Boolean.TRUE);
+                return true;
+            }
+
+            @Override
+            public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                    WebSocketHandler wsHandler, Exception exception) {
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (type == null) {
+            return message;
+        }
+        return switch (type) {
+            case MESSAGE -> encode(message);
+            case CONNECT, SUBSCRIBE, UNSUBSCRIBE, DISCONNECT -> {
+                negotiate(message, type);
+                yield message;
+            }
+            default -> message;
+        };
+    }
+
+    /**
+     * The format of messages for {@code subscriptionId} of {@code sessionId}.
+     */
+    public WireFormat formatOf(String sessionId, String subscriptionId) {
+        SessionFormats formats = sessionId != null ? sessions.get(sessionId) : null;
+        return formats != null ? formats.formatOf(subscriptionId) : WireFormat.JSON;
+    }
+
+    private void negotiate(Message<?> message, SimpMessageType type) {
+        SimpMessageHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, SimpMessageHeaderAccessor.class);
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (accessor == null || sessionId == null) {
+            return;
+        }
+
+        switch (type) {
+            case CONNECT -> {
+                WireFormat requested = requested(accessor, sessionId);
+                if (requested != null && requested != WireFormat.JSON) {
+                    sessions.put(sessionId, new SessionFormats(requested));
+                }
+            }
+            case SUBSCRIBE -> {
+                WireFormat requested = requested(accessor, sessionId);
+                if (requested != null && accessor.getSubscriptionId() != null) {
+                    sessions.computeIfAbsent(sessionId, id -> new SessionFormats(WireFormat.JSON))
+                            .subscriptions.put(accessor.getSubscriptionId(), requested);
+                }
+            }
+            case UNSUBSCRIBE -> {
+                SessionFormats formats = sessions.get(sessionId);
+                if (formats != null && accessor.getSubscriptionId() != null) {
+                    formats.subscriptions.remove(accessor.getSubscriptionId());
+                }
+            }
+            case DISCONNECT -> sessions.remove(sessionId);
+            default -> {
+            }
+        }
+    }
+
+    private WireFormat requested(SimpMessageHeaderAccessor accessor, String sessionId) {
+        WireFormat requested = WireFormat.of(accessor.getFirstNativeHeader(HEADER));
+        if (requested == WireFormat.CBOR && !binaryTransport(accessor)) {
+            if (diagnostics.enabledFor(sessionId, accessor.getDestination())) {
+                diagnostics.log("Session {} asked for CBOR over a text-only transport, keeping JSON", sessionId);
+            }
+            return WireFormat.JSON;
+        }
+        return requested;
+    }
+
+    private static boolean binaryTransport(SimpMessageHeaderAccessor accessor) {
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        return attributes != null && Boolean.TRUE.equals(attributes.get(BINARY_TRANSPORT));
+    }
+
+    private Message<?> encode(Message<?> message) {
+        if (sessions.isEmpty() || !(message.getPayload() instanceof byte[] json)) {
+            return message;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders());
+        if (formatOf(sessionId, subscriptionId) != WireFormat.CBOR) {
+            return message;
+        }
+
+        byte[] cbor = message.getHeaders().get(SHARED_CBOR) instanceof SharedCbor shared
+                ? shared.get(json, stompMessageConverter::toCbor)
+                : stompMessageConverter.toCbor(json);
+
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(message);
+        headers.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        headers.setNativeHeader(HEADER, "cbor");
+        // The STOMP encoder measures the new body itself
+        headers.removeNativeHeader("content-length");
+
+        if (diagnostics.enabledFor(sessionId, SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+            diagnostics.log("STOMP MESSAGE for session {} as CBOR: {} bytes (JSON {} bytes)", sessionId,
+                    cbor.length, json.length);
+        }
+
+        return MessageBuilder.createMessage(cbor, headers.getMessageHeaders());
+    }
+
+    /**
+     * The CBOR body of one broadcast, transcoded by its first CBOR subscriber.
+     * Each broadcast has its own, so only subscribers of the same broadcast
+     * ever wait for one another.
+     */
+    public static final class SharedCbor {
+
+        private volatile byte[] cbor;
+
+        byte[] get(byte[] json, UnaryOperator<byte[]> transcoder) {
+            byte[] result = cbor;
+            if (result == null) {
+                synchronized (this) {
+                    result = cbor;
+                    if (result == null) {
+                        result = transcoder.apply(json);
+                        cbor = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final class SessionFormats {
+
+        private final WireFormat sessionFormat;
+        private final Map<String, WireFormat> subscriptions = new ConcurrentHashMap<>();
+
+        private SessionFormats(WireFormat sessionFormat) {
+            this.sessionFormat = sessionFormat;
+        }
+
+        private WireFormat formatOf(String subscriptionId) {
+            WireFormat format = subscriptionId != null ? subscriptions.get(subscriptionId) : null;
+            return format != null ? format : sessionFormat;
+        }
+    }
+}
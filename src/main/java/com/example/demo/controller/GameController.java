@@ -1,9 +1,9 @@
 package com.example.demo.controller;
 
 import com.example.demo.dto.*;
+import com.example.demo.engine.GameCommandRetry;
 import com.example.demo.service.GameService;
 import com.example.demo.service.WebSocketService;
-import com.example.demo.service.OptimizedWebSocketService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -20,7 +20,7 @@ public class GameController {
 
     private final GameService gameService;
     private final WebSocketService webSocketService;
-    private final OptimizedWebSocketService optimizedWebSocketService;
+    private final GameCommandRetry gameCommandRetry;
 
     @PostMapping
     public ResponseEntity<GameResponse> createGame(@Valid @RequestBody CreateGameRequest request) {
@@ -40,7 +40,8 @@ public class GameController {
     @PostMapping("/join")
     public ResponseEntity<GameResponse> joinGame(@Valid @RequestBody JoinGameRequest request) {
         try {
-            GameResponse response = gameService.joinGame(request);
+            GameResponse response = gameCommandRetry.execute("join", request.getGameCode(),
+                    () -> gameService.joinGame(request));
 
             // WebSocket broadcasts are now handled in GameService
             // - GAME_UPDATE event is sent when player joins
@@ -64,11 +65,23 @@ public class GameController {
     }
 
     @GetMapping
-    public ResponseEntity<List<GameResponse>> getAvailableGames() {
-        List<GameResponse> games = gameService.getAvailableGames();
+    public ResponseEntity<List<LobbyGameSummary>> getAvailableGames() {
+        List<LobbyGameSummary> games = gameService.getAvailableGames();
         return ResponseEntity.ok(games);
     }
 
+    @GetMapping("/lobby")
+    public ResponseEntity<LobbyPage> getLobbyPage(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "1") int minFreeSeats,
+            @RequestParam(required = false) Integer maxPlayers) {
+        try {
+            return ResponseEntity.ok(gameService.getLobbyPage(cursor, limit, minFreeSeats, maxPlayers));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/player/{playerId}")
     public ResponseEntity<List<GameResponse>> getPlayerGames(@PathVariable Long playerId) {
         try {
@@ -82,37 +95,12 @@ public class GameController {
     @PostMapping("/play-card")
     public ResponseEntity<GameResponse> playCard(@Valid @RequestBody PlayCardRequest request) {
         try {
-            GameResponse response = gameService.playCard(
+            // GameService broadcasts CARD_PLAYED, and GAME_WON when the game ends
+            GameResponse response = gameCommandRetry.call("play", request.getGameCode(), () -> gameService.playCard(
                     request.getCardId(),
                     request.getPlayerId(),
                     request.getGameCode(),
-                    request.getChosenColor());
-
-            // Find player name
-            String playerName = response.getPlayers().stream()
-                    .filter(p -> p.getPlayer().getId().equals(request.getPlayerId()))
-                    .map(p -> p.getPlayer().getPlayerName())
-                    .findFirst()
-                    .orElse("Unknown Player");
-
-            // Broadcast optimized card played event
-            optimizedWebSocketService.broadcastCardPlayed(
-                    response.getGameCode(),
-                    request.getPlayerId(),
-                    playerName,
-                    request.getCardId(),
-                    response.getTopCard(),
-                    response);
-
-            // Check if game ended
-            if (response.getStatus().name().equals("FINISHED")) {
-                String winnerName = response.getWinner() != null ? response.getWinner().getPlayerName() : "Unknown";
-                optimizedWebSocketService.broadcastGameWon(
-                        response.getGameCode(),
-                        response.getWinner().getId(),
-                        winnerName,
-                        0); // TODO: Calculate final score
-            }
+                    request.getChosenColor()));
 
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
@@ -123,31 +111,9 @@ public class GameController {
     @PostMapping("/draw-card")
     public ResponseEntity<GameResponse> drawCard(@Valid @RequestBody DrawCardRequest request) {
         try {
-            GameResponse response = gameService.drawCard(request.getPlayerId(), request.getGameCode());
-
-            // Find player name
-            String playerName = response.getPlayers().stream()
-                    .filter(p -> p.getPlayer().getId().equals(request.getPlayerId()))
-                    .map(p -> p.getPlayer().getPlayerName())
-                    .findFirst()
-                    .orElse("Unknown Player");
-
-            // Get player's current card count
-            Integer totalCardsInHand = response.getPlayers().stream()
-                    .filter(p -> p.getPlayer().getId().equals(request.getPlayerId()))
-                    .map(p -> p.getCardsCount())
-                    .findFirst()
-                    .orElse(0);
-
-            // Broadcast optimized card drawn event
-            optimizedWebSocketService.broadcastCardDrawn(
-                    response.getGameCode(),
-                    request.getPlayerId(),
-                    playerName,
-                    1, // cards drawn
-                    totalCardsInHand,
-                    response.getDeckSize(),
-                    response);
+            // GameService broadcasts CARD_DRAWN
+            GameResponse response = gameCommandRetry.call("draw", request.getGameCode(),
+                    () -> gameService.drawCard(request.getPlayerId(), request.getGameCode()));
 
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
@@ -158,28 +124,9 @@ public class GameController {
     @PostMapping("/call-uno")
     public ResponseEntity<GameResponse> callUno(@Valid @RequestBody UnoCallRequest request) {
         try {
-            GameResponse response = gameService.callUno(request.getPlayerId(), request.getGameCode());
-
-            // Find player name
-            String playerName = response.getPlayers().stream()
-                    .filter(p -> p.getPlayer().getId().equals(request.getPlayerId()))
-                    .map(p -> p.getPlayer().getPlayerName())
-                    .findFirst()
-                    .orElse("Unknown Player");
-
-            // Get player's current card count
-            Integer cardsRemaining = response.getPlayers().stream()
-                    .filter(p -> p.getPlayer().getId().equals(request.getPlayerId()))
-                    .map(p -> p.getCardsCount())
-                    .findFirst()
-                    .orElse(0);
-
-            // Broadcast optimized UNO call
-            optimizedWebSocketService.broadcastUnoCalled(
-                    response.getGameCode(),
-                    request.getPlayerId(),
-                    playerName,
-                    cardsRemaining);
+            // GameService broadcasts UNO_CALLED
+            GameResponse response = gameCommandRetry.call("uno", request.getGameCode(),
+                    () -> gameService.callUno(request.getPlayerId(), request.getGameCode()));
 
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
@@ -190,10 +137,9 @@ public class GameController {
     @PostMapping("/leave")
     public ResponseEntity<GameResponse> leaveGame(@RequestBody JoinGameRequest request) {
         try {
-            GameResponse response = gameService.leaveGame(request.getPlayerId(), request.getGameCode());
-
-            // Broadcast game update using optimized service
-            optimizedWebSocketService.broadcastGameUpdate(response.getGameCode(), response);
+            // GameService broadcasts GAME_UPDATE
+            GameResponse response = gameCommandRetry.call("leave", request.getGameCode(),
+                    () -> gameService.leaveGame(request.getPlayerId(), request.getGameCode()));
 
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
@@ -1,5 +1,6 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.LeaderboardEntry;
 import com.example.demo.dto.PlayerRequest;
 import com.example.demo.dto.PlayerResponse;
 import com.example.demo.dto.UpdateCoinsRequest;
@@ -101,14 +102,34 @@ public class PlayerController {
     }
 
     @GetMapping("/leaderboard")
-    public ResponseEntity<List<PlayerResponse>> getLeaderboard() {
-        List<PlayerResponse> players = playerService.getPlayersOrderByCoins();
+    public ResponseEntity<List<PlayerResponse>> getLeaderboard(@RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<PlayerResponse> players = playerService.getPlayersOrderByCoins(offset, limit);
+        return ResponseEntity.ok(players);
+    }
+
+    @GetMapping("/{id}/rank")
+    public ResponseEntity<LeaderboardEntry> getPlayerRank(@PathVariable Long id) {
+        return playerService.getPlayerRank(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/around")
+    public ResponseEntity<List<LeaderboardEntry>> getPlayersAround(@PathVariable Long id,
+            @RequestParam(defaultValue = "5") int radius) {
+        List<LeaderboardEntry> players = playerService.getPlayersAround(id, radius);
+        if (players.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
         return ResponseEntity.ok(players);
     }
 
     @GetMapping("/rich")
-    public ResponseEntity<List<PlayerResponse>> getRichPlayers(@RequestParam(defaultValue = "1000") Integer minCoins) {
-        List<PlayerResponse> players = playerService.getPlayersWithMinCoins(minCoins);
+    public ResponseEntity<List<PlayerResponse>> getRichPlayers(@RequestParam(defaultValue = "1000") Integer minCoins,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<PlayerResponse> players = playerService.getPlayersWithMinCoins(minCoins, offset, limit);
         return ResponseEntity.ok(players);
     }
 }
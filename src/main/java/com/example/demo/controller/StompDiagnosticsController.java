@@ -0,0 +1,85 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.SessionOutboundQueues;
+import com.example.demo.config.StompDiagnostics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Switches STOMP frame diagnostics on and off at runtime, for everything, per
+ * WebSocket session or per game, and shows the outbound queue of each session.
+ */
+@RestController
+@RequestMapping("/api/diagnostics/stomp")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class StompDiagnosticsController {
+
+    private final StompDiagnostics stompDiagnostics;
+    private final SessionOutboundQueues sessionOutboundQueues;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getDiagnostics() {
+        return ResponseEntity.ok(status());
+    }
+
+    @PutMapping
+    public ResponseEntity<Map<String, Object>> updateDiagnostics(@RequestParam(required = false) Boolean enabled,
+            @RequestParam(required = false) Integer sampleRate) {
+        if (enabled != null) {
+            stompDiagnostics.setAll(enabled);
+        }
+        if (sampleRate != null) {
+            stompDiagnostics.setSampleRate(sampleRate);
+        }
+        return ResponseEntity.ok(status());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Map<String, Object>> resetDiagnostics() {
+        stompDiagnostics.reset();
+        return ResponseEntity.ok(status());
+    }
+
+    @PutMapping("/sessions/{sessionId}")
+    public ResponseEntity<Map<String, Object>> enableSession(@PathVariable String sessionId) {
+        stompDiagnostics.enableSession(sessionId);
+        return ResponseEntity.ok(status());
+    }
+
+    @DeleteMapping("/sessions/{sessionId}")
+    public ResponseEntity<Map<String, Object>> disableSession(@PathVariable String sessionId) {
+        stompDiagnostics.disableSession(sessionId);
+        return ResponseEntity.ok(status());
+    }
+
+    @PutMapping("/games/{gameCode}")
+    public ResponseEntity<Map<String, Object>> enableGame(@PathVariable String gameCode) {
+        stompDiagnostics.enableGame(gameCode);
+        return ResponseEntity.ok(status());
+    }
+
+    @DeleteMapping("/games/{gameCode}")
+    public ResponseEntity<Map<String, Object>> disableGame(@PathVariable String gameCode) {
+        stompDiagnostics.disableGame(gameCode);
+        return ResponseEntity.ok(status());
+    }
+
+    @GetMapping("/queues")
+    public ResponseEntity<Map<String, Map<String, Object>>> getQueues() {
+        return ResponseEntity.ok(sessionOutboundQueues.stats());
+    }
+
+    private Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", stompDiagnostics.isAll());
+        status.put("sessions", stompDiagnostics.getSessions());
+        status.put("games", stompDiagnostics.getGames());
+        status.put("sampleRate", stompDiagnostics.getSampleRate());
+        return status;
+    }
+}
@@ -18,16 +18,22 @@ public class CardDto {
     private Integer value;
     private Integer positionInHand;
     
-    public static CardDto fromEntity(Card card) {
+    public static CardDto fromCard(Card card) {
         return new CardDto(
             card.getId(),
             card.getCardType(),
             card.getColor(),
             card.getValue(),
-            card.getPositionInHand()
+            null
         );
     }
     
+    public static CardDto inHand(Card card, int positionInHand) {
+        CardDto dto = fromCard(card);
+        dto.setPositionInHand(positionInHand);
+        return dto;
+    }
+    
     public String getDisplayName() {
         if (cardType == CardType.NUMBER) {
             return color.name() + " " + value;
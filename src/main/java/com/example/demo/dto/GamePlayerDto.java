@@ -1,12 +1,13 @@
 package com.example.demo.dto;
 
-import com.example.demo.entity.GamePlayer;
+import com.example.demo.engine.SeatState;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.IntStream;
 
 @Data
 @NoArgsConstructor
@@ -22,19 +23,19 @@ public class GamePlayerDto {
     private Boolean hasCalledUno;
     private List<CardDto> hand; // Only populated for the current player
     
-    public static GamePlayerDto fromEntity(GamePlayer gamePlayer, boolean includeHand) {
+    public static GamePlayerDto fromState(SeatState seat, boolean includeHand) {
         GamePlayerDto dto = new GamePlayerDto();
-        dto.setId(gamePlayer.getId());
-        dto.setPlayer(PlayerResponse.fromEntity(gamePlayer.getPlayer()));
-        dto.setPlayerOrder(gamePlayer.getPlayerOrder());
-        dto.setJoinedAt(gamePlayer.getJoinedAt());
-        dto.setIsActive(gamePlayer.getIsActive());
-        dto.setCardsCount(gamePlayer.getCardsCount());
-        dto.setHasCalledUno(gamePlayer.getHasCalledUno());
+        dto.setId(seat.getGamePlayerId());
+        dto.setPlayer(seat.getPlayer());
+        dto.setPlayerOrder(seat.getPlayerOrder());
+        dto.setJoinedAt(seat.getJoinedAt());
+        dto.setIsActive(seat.isActive());
+        dto.setCardsCount(seat.getCardsCount());
+        dto.setHasCalledUno(seat.isHasCalledUno());
         
         if (includeHand) {
-            dto.setHand(gamePlayer.getHand().stream()
-                .map(CardDto::fromEntity)
+            dto.setHand(IntStream.range(0, seat.getHand().size())
+                .mapToObj(i -> CardDto.inHand(seat.getHand().get(i), i))
                 .toList());
         }
         
@@ -1,6 +1,6 @@
 package com.example.demo.dto;
 
-import com.example.demo.entity.Game;
+import com.example.demo.engine.GameState;
 import com.example.demo.enums.GameDirection;
 import com.example.demo.enums.GameStatus;
 import lombok.AllArgsConstructor;
@@ -30,43 +30,38 @@ public class GameResponse {
     private List<GamePlayerDto> players;
     private CardDto topCard;
     private Integer deckSize;
+    private Integer discardSize;
     
-    public static GameResponse fromEntity(Game game, Long currentPlayerId) {
+    public static GameResponse fromState(GameState state, Long currentPlayerId) {
         GameResponse response = new GameResponse();
-        response.setId(game.getId());
-        response.setGameCode(game.getGameCode());
-        response.setStatus(game.getStatus());
-        response.setMaxPlayers(game.getMaxPlayers());
-        response.setMinPlayers(game.getMinPlayers());
-        response.setCurrentPlayerIndex(game.getCurrentPlayerIndex());
-        response.setDirection(game.getDirection());
-        response.setCreatedAt(game.getCreatedAt());
-        response.setStartedAt(game.getStartedAt());
-        response.setFinishedAt(game.getFinishedAt());
+        response.setId(state.getGameId());
+        response.setGameCode(state.getGameCode());
+        response.setStatus(state.getStatus());
+        response.setMaxPlayers(state.getMaxPlayers());
+        response.setMinPlayers(state.getMinPlayers());
+        response.setCurrentPlayerIndex(state.getCurrentPlayerIndex());
+        response.setDirection(state.getDirection());
+        response.setCreatedAt(state.getCreatedAt());
+        response.setStartedAt(state.getStartedAt());
+        response.setFinishedAt(state.getFinishedAt());
+        response.setWinner(state.getWinner());
+        response.setCreatedBy(state.getCreatedBy());
         
-        if (game.getWinner() != null) {
-            response.setWinner(PlayerResponse.fromEntity(game.getWinner()));
-        }
-        
-        if (game.getCreatedBy() != null) {
-            response.setCreatedBy(PlayerResponse.fromEntity(game.getCreatedBy()));
-        }
-        
-        // Convert game players, include hand only for current player
-        response.setPlayers(game.getGamePlayers().stream()
-            .map(gp -> GamePlayerDto.fromEntity(gp, 
-                currentPlayerId != null && gp.getPlayer().getId().equals(currentPlayerId)))
+        // Include hand only for the requesting player
+        response.setPlayers(state.getSeats().stream()
+            .map(seat -> GamePlayerDto.fromState(seat,
+                currentPlayerId != null && seat.getPlayerId().equals(currentPlayerId)))
             .toList());
         
-        // Set top card
-        if (game.getTopCard() != null) {
-            response.setTopCard(CardDto.fromEntity(game.getTopCard()));
+        // Show a wild top card in the color chosen for it
+        if (state.getTopCard() != null) {
+            CardDto topCard = CardDto.fromCard(state.getTopCard());
+            topCard.setColor(state.getActiveColor());
+            response.setTopCard(topCard);
         }
         
-        // Count deck size
-        response.setDeckSize((int) game.getCards().stream()
-            .filter(card -> card.getIsInDeck())
-            .count());
+        response.setDeckSize(state.getDeckSize());
+        response.setDiscardSize(state.getDiscardSize());
         
         return response;
     }
@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A player and their place on the leaderboard, 1 being the richest.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntry {
+
+    private Integer rank;
+    private Long id;
+    private String playerName;
+    private Integer coins;
+
+    public static LeaderboardEntry of(int rank, PlayerResponse player) {
+        return new LeaderboardEntry(rank, player.getId(), player.getPlayerName(), player.getCoins());
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.dto;
+
+import com.example.demo.engine.GameState;
+import com.example.demo.enums.GameStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A joinable game as listed in the lobby: just enough to pick a game, without
+ * seats, hands or piles.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LobbyGameSummary {
+
+    private Long id;
+    private String gameCode;
+    private GameStatus status;
+    private Integer playerCount;
+    private Integer maxPlayers;
+    private Integer minPlayers;
+    private Long createdById;
+    private String createdByName;
+    private LocalDateTime createdAt;
+
+    /**
+     * Constructor expression target of the lobby queries, which count seats
+     * as a {@code Long}.
+     */
+    public LobbyGameSummary(Long id, String gameCode, GameStatus status, Long playerCount, Integer maxPlayers,
+                            Integer minPlayers, Long createdById, String createdByName, LocalDateTime createdAt) {
+        this(id, gameCode, status, playerCount.intValue(), maxPlayers, minPlayers, createdById, createdByName, createdAt);
+    }
+
+    public int getFreeSeats() {
+        return maxPlayers - playerCount;
+    }
+
+    /**
+     * Call while holding the state lock.
+     */
+    public static LobbyGameSummary fromState(GameState state) {
+        return new LobbyGameSummary(
+            state.getGameId(),
+            state.getGameCode(),
+            state.getStatus(),
+            state.getSeats().size(),
+            state.getMaxPlayers(),
+            state.getMinPlayers(),
+            state.getCreatedBy() != null ? state.getCreatedBy().getId() : null,
+            state.getCreatedBy() != null ? state.getCreatedBy().getPlayerName() : null,
+            state.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the lobby. {@code nextCursor} is passed back to fetch the games
+ * after this page, and is {@code null} on the last one.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LobbyPage {
+
+    private List<LobbyGameSummary> games;
+    private String nextCursor;
+}
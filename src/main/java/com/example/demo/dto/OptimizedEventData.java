@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * Optimized event data classes that send only the necessary information
  */
@@ -92,6 +94,47 @@ public class OptimizedEventData {
         private String newCurrentPlayerName;
     }
 
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HandDelta {
+        private List<CardDto> added; // Appended to the hand, with their positions
+        private List<Long> removed; // Card ids
+        private Integer handSize;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Batch {
+        private List<OptimizedGameEvent> events; // In sequence order
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Resync {
+        private GameResponse game; // Replaces everything the client holds of the game
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LobbySnapshot {
+        private Long version; // Diffs up to this version are already applied
+        private List<LobbyGameSummary> games; // Oldest first
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LobbyDiff {
+        private Long version;
+        private List<LobbyGameSummary> added;
+        private List<LobbyGameSummary> updated;
+        private List<String> removed; // Game codes
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -20,6 +20,7 @@ public class OptimizedGameEvent {
     private String playerName;
     private LocalDateTime timestamp;
     private Object eventData;
+    private Integer seq; // Per-game sequence number; null for personal messages
     
     public static OptimizedGameEvent create(String eventType, String gameCode, Long playerId, 
                                           String playerName, Object eventData) {
@@ -29,7 +30,8 @@ public class OptimizedGameEvent {
             playerId,
             playerName,
             LocalDateTime.now(),
-            eventData
+            eventData,
+            null
         );
     }
 }
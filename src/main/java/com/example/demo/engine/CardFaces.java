@@ -0,0 +1,95 @@
+package com.example.demo.engine;
+
+import com.example.demo.entity.Card;
+import com.example.demo.enums.CardColor;
+import com.example.demo.enums.CardType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The 108 faces of a standard Uno deck. A face id (0-107) identifies one
+ * physical card within a game, fits in a byte, and doubles as the card id
+ * sent to clients.
+ */
+public final class CardFaces {
+
+    private static final Card[] FACES = createFaces();
+
+    public static final int DECK_SIZE = FACES.length;
+
+    private CardFaces() {
+    }
+
+    public static Card get(int faceId) {
+        return FACES[faceId];
+    }
+
+    /**
+     * Returns the face for a client supplied card id, or {@code null} if the id
+     * is not a face id.
+     */
+    public static Card find(Long cardId) {
+        if (cardId == null || cardId < 0 || cardId >= DECK_SIZE) {
+            return null;
+        }
+        return FACES[cardId.intValue()];
+    }
+
+    public static List<Card> all() {
+        return Arrays.asList(FACES);
+    }
+
+    public static byte[] pack(List<Card> cards) {
+        byte[] packed = new byte[cards.size()];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = cards.get(i).getId().byteValue();
+        }
+        return packed;
+    }
+
+    public static List<Card> unpack(byte[] packed) {
+        List<Card> cards = new ArrayList<>(packed.length);
+        for (byte faceId : packed) {
+            cards.add(FACES[faceId]);
+        }
+        return cards;
+    }
+
+    private static Card[] createFaces() {
+        List<Card> faces = new ArrayList<>();
+        
+        // Create number cards (0-9) for each color
+        for (CardColor color : Arrays.asList(CardColor.RED, CardColor.BLUE, CardColor.GREEN, CardColor.YELLOW)) {
+            // One 0 card per color
+            add(faces, CardType.NUMBER, color, 0);
+            
+            // Two of each number 1-9 per color
+            for (int i = 1; i <= 9; i++) {
+                add(faces, CardType.NUMBER, color, i);
+                add(faces, CardType.NUMBER, color, i);
+            }
+            
+            // Two of each action card per color
+            add(faces, CardType.SKIP, color, null);
+            add(faces, CardType.SKIP, color, null);
+            add(faces, CardType.REVERSE, color, null);
+            add(faces, CardType.REVERSE, color, null);
+            add(faces, CardType.DRAW_TWO, color, null);
+            add(faces, CardType.DRAW_TWO, color, null);
+        }
+        
+        // Add wild cards
+        for (int i = 0; i < 4; i++) {
+            add(faces, CardType.WILD, CardColor.WILD, null);
+            add(faces, CardType.WILD_DRAW_FOUR, CardColor.WILD, null);
+        }
+        
+        return faces.toArray(new Card[0]);
+    }
+
+    private static void add(List<Card> faces, CardType cardType, CardColor color, Integer value) {
+        faces.add(new Card((long) faces.size(), cardType, color, value));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.engine;
+
+import com.example.demo.enums.CardColor;
+import com.example.demo.enums.GameDirection;
+import com.example.demo.enums.GameStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Point-in-time copy of everything that changed in a {@link GameState} since
+ * the last flush. Taken under the state lock so the flusher can write it
+ * without holding the lock. {@code version} is the games row version the
+ * changes were made against.
+ */
+public record GameChanges(
+        Long gameId,
+        long version,
+        GameRow game,
+        List<SeatRow> seats,
+        DeckRow deck) {
+
+    public record GameRow(GameStatus status, Integer currentPlayerIndex, GameDirection direction,
+            LocalDateTime startedAt, LocalDateTime finishedAt, Long winnerId, int nextEventSeq,
+            Integer topCardId, CardColor activeColor) {
+    }
+
+    public record SeatRow(Long gamePlayerId, boolean active, int cardsCount, boolean hasCalledUno) {
+    }
+
+    /**
+     * Packed card locations; see {@link com.example.demo.entity.GameDeck}.
+     */
+    public record DeckRow(byte[] drawPile, int drawPosition, long shuffleSeed,
+            byte[] discardPile, byte[] hands) {
+    }
+
+    public boolean isEmpty() {
+        return game == null && seats.isEmpty() && deck == null;
+    }
+}
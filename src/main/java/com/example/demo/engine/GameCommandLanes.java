@@ -0,0 +1,136 @@
+package com.example.demo.engine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs game commands on a fixed set of single-threaded lanes. A game code
+ * always hashes to the same lane, so moves of one game execute one at a time
+ * in arrival order while different games run in parallel.
+ *
+ * <p>Commands run on the lane thread, outside the caller's transaction. A
+ * delayed command waits on a separate timer thread and joins the back of its
+ * lane when due, so the lane keeps running other moves meanwhile.
+ */
+@Component
+public class GameCommandLanes {
+
+    @Value("${uno.lanes.count:0}")
+    private int laneCount;
+
+    private ExecutorService[] lanes;
+    private ScheduledExecutorService timer;
+
+    @PostConstruct
+    void start() {
+        int count = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        lanes = new ExecutorService[count];
+        for (int i = 0; i < count; i++) {
+            String name = "game-lane-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "game-lane-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        timer.shutdownNow();
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            lane.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Queues {@code command} on the lane of {@code gameCode}.
+     */
+    public <T> CompletableFuture<T> submit(String gameCode, Supplier<T> command) {
+        return CompletableFuture.supplyAsync(command, laneFor(gameCode));
+    }
+
+    /**
+     * Queues {@code command} on the lane of {@code gameCode} once
+     * {@code delayMs} have passed, without holding up the lane until then.
+     */
+    public <T> CompletableFuture<T> submit(String gameCode, Supplier<T> command, long delayMs) {
+        if (delayMs <= 0) {
+            return submit(gameCode, command);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ExecutorService lane = laneFor(gameCode);
+        try {
+            timer.schedule(() -> {
+                try {
+                    submit(lane, command, result);
+                } catch (RejectedExecutionException e) {
+                    result.completeExceptionally(e);
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Runs {@code command} on the lane of {@code gameCode} and waits for it,
+     * rethrowing the command's own exception.
+     */
+    public <T> T call(String gameCode, Supplier<T> command) {
+        try {
+            return submit(gameCode, command).join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Returns the exception thrown by a command from the one completing its
+     * future.
+     */
+    public static RuntimeException unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+            ? error.getCause() : error;
+        return cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+    }
+
+    private static <T> void submit(ExecutorService lane, Supplier<T> command, CompletableFuture<T> result) {
+        lane.execute(() -> {
+            try {
+                result.complete(command.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    private ExecutorService laneFor(String gameCode) {
+        return lanes[Math.floorMod(Objects.hashCode(gameCode), lanes.length)];
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.demo.engine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Retries game commands that lost an optimistic-lock race. Moves only touch
+ * the resident state, so the race they lose is against its replacement: a
+ * command that waited for the lock of a state that {@link GameStateFlusher}
+ * reloaded after a write conflict, or that was evicted, fails in
+ * {@link GameStateStore#checkCurrent} and runs again against the state that
+ * is resident now. Inline writes that hit a stale version retry the same way.
+ *
+ * <p>Commands on a {@link GameCommandLanes} lane go through {@link #submit} or
+ * {@link #call}: a conflicting attempt is queued again on the lane after its
+ * backoff rather than sleeping on the lane thread, so other games on the lane
+ * keep moving. {@link #execute} waits on the calling thread and is for
+ * commands that run off the lanes.
+ *
+ * <p>Conflicts are counted per action as {@code uno.game.conflicts}; commands
+ * that still conflict after the last attempt as {@code uno.game.conflicts.exhausted}.
+ */
+@Component
+@RequiredArgsConstructor
+public class GameCommandRetry {
+
+    private static final Logger log = LoggerFactory.getLogger(GameCommandRetry.class);
+
+    private final MeterRegistry meterRegistry;
+    private final GameCommandLanes gameCommandLanes;
+
+    @Value("${uno.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${uno.retry.backoff-ms:10}")
+    private long backoffMs;
+
+    @Value("${uno.retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    /**
+     * Runs {@code command}, which must open its own transaction, retrying it
+     * on an optimistic-lock conflict.
+     */
+    public <T> T execute(String action, String gameCode, Supplier<T> command) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return command.get();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                recordConflict(action);
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("uno.game.conflicts.exhausted", "action", action).increment();
+                    throw e;
+                }
+                log.debug("Conflict on {} of game {}, attempt {}", action, gameCode, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Queues {@code command}, which must open its own transaction, on the lane
+     * of {@code gameCode}, queuing it again after a backoff on an
+     * optimistic-lock conflict.
+     */
+    public <T> CompletableFuture<T> submit(String action, String gameCode, Supplier<T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(action, gameCode, command, 1, 0, result);
+        return result;
+    }
+
+    /**
+     * Runs {@code command} on the lane of {@code gameCode} like
+     * {@link #submit} and waits for it, rethrowing the command's own exception.
+     */
+    public <T> T call(String action, String gameCode, Supplier<T> command) {
+        try {
+            return submit(action, gameCode, command).join();
+        } catch (CompletionException e) {
+            throw GameCommandLanes.unwrap(e);
+        }
+    }
+
+    private <T> void attempt(String action, String gameCode, Supplier<T> command, int attempt, long delayMs,
+            CompletableFuture<T> result) {
+        gameCommandLanes.submit(gameCode, command, delayMs).whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            RuntimeException cause = GameCommandLanes.unwrap(error);
+            if (!(cause instanceof OptimisticLockingFailureException || cause instanceof OptimisticLockException)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            recordConflict(action);
+            if (attempt >= maxAttempts) {
+                meterRegistry.counter("uno.game.conflicts.exhausted", "action", action).increment();
+                result.completeExceptionally(cause);
+                return;
+            }
+            log.debug("Conflict on {} of game {}, attempt {}", action, gameCode, attempt);
+            attempt(action, gameCode, command, attempt + 1, backoffMs(attempt), result);
+        });
+    }
+
+    /**
+     * Counts a conflict that was resolved without retrying the command.
+     */
+    public void recordConflict(String action) {
+        conflicts(action).increment();
+    }
+
+    private Counter conflicts(String action) {
+        return meterRegistry.counter("uno.game.conflicts", "action", action);
+    }
+
+    private long backoffMs(int attempt) {
+        // Exponential with full jitter, so racing writers spread out
+        long ceiling = Math.min(maxBackoffMs, backoffMs << Math.min(attempt - 1, 16));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(backoffMs(attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to retry", e);
+        }
+    }
+}
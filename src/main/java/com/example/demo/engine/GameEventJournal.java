@@ -0,0 +1,329 @@
+package com.example.demo.engine;
+
+import com.example.demo.entity.GameEvent;
+import com.example.demo.repository.GameEventRepository;
+import com.example.demo.repository.GameRepository;
+import com.example.demo.repository.PlayerRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous writer for {@code game_events}. Events drained from a
+ * {@link GameState} are queued once the move commits and bulk-inserted by a
+ * single writer thread, either when {@code uno.journal.batch-size} events
+ * are waiting or {@code uno.journal.flush-interval-ms} after the first one
+ * arrived.
+ *
+ * <p>With {@code uno.journal.durability=WAIT_FOR_FLUSH} the committing thread
+ * blocks until its events are written; the default {@code FIRE_AND_FORGET}
+ * returns as soon as they are queued. Either way a full queue blocks the
+ * producer rather than dropping events. The wait happens after the commit,
+ * since the events reference rows of that transaction, so a failed write
+ * reaches the caller of a move that is already committed.
+ *
+ * <p>A batch that fails is retried {@code uno.journal.max-attempts} times
+ * with exponential backoff, then written one game at a time and, for a game
+ * that still fails, one event at a time. Only an event that can not be
+ * written on its own is dropped and counted in
+ * {@code uno.journal.events.failed}.
+ */
+@Component
+@RequiredArgsConstructor
+public class GameEventJournal {
+
+    public enum Durability {
+        FIRE_AND_FORGET,
+        WAIT_FOR_FLUSH
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(GameEventJournal.class);
+
+    private final GameEventRepository gameEventRepository;
+    private final GameRepository gameRepository;
+    private final PlayerRepository playerRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${uno.journal.capacity:8192}")
+    private int capacity;
+
+    @Value("${uno.journal.batch-size:256}")
+    private int batchSize;
+
+    @Value("${uno.journal.flush-interval-ms:5}")
+    private long flushIntervalMs;
+
+    @Value("${uno.journal.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${uno.journal.backoff-ms:50}")
+    private long backoffMs = 50;
+
+    @Value("${uno.journal.max-backoff-ms:2000}")
+    private long maxBackoffMs = 2000;
+
+    @Value("${uno.journal.durability:FIRE_AND_FORGET}")
+    private Durability durability;
+
+    private BlockingQueue<Entry> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread writer;
+    private volatile boolean running;
+
+    private Timer flushLatency;
+    private Counter eventsWritten;
+    private Counter eventsFailed;
+
+    /**
+     * One submission: the events of one game, written in order. An entry
+     * without events is a barrier used by {@link #flush()}.
+     */
+    private record Entry(Long gameId, List<PendingEvent> events, boolean urgent, CompletableFuture<Void> written) {
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("uno.journal.queue.depth", queue, BlockingQueue::size)
+            .description("Event batches waiting to be written")
+            .register(meterRegistry);
+        flushLatency = Timer.builder("uno.journal.flush.latency")
+            .description("Time to write one batch of game events")
+            .register(meterRegistry);
+        eventsWritten = Counter.builder("uno.journal.events.written").register(meterRegistry);
+        eventsFailed = Counter.builder("uno.journal.events.failed").register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::run, "game-event-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        // Write whatever is left on the caller's thread
+        List<Entry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        write(remaining);
+    }
+
+    /**
+     * Takes the events logged on {@code state} and queues them once the
+     * surrounding transaction commits; immediately when there is none. Must be
+     * called while holding the state lock so events are queued in order.
+     */
+    public void append(GameState state) {
+        List<PendingEvent> events = state.drainEvents();
+        if (events.isEmpty()) {
+            return;
+        }
+        Long gameId = state.getGameId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(gameId, events);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(gameId, events);
+            }
+        });
+    }
+
+    /**
+     * Blocks until every event queued so far has been written.
+     */
+    public void flush() {
+        enqueue(new Entry(null, List.of(), true, new CompletableFuture<>())).join();
+    }
+
+    private void submit(Long gameId, List<PendingEvent> events) {
+        boolean wait = durability == Durability.WAIT_FOR_FLUSH;
+        CompletableFuture<Void> written = enqueue(new Entry(gameId, events, wait, new CompletableFuture<>()));
+        if (wait) {
+            written.join();
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(Entry entry) {
+        try {
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing game events", e);
+        }
+        return entry.written();
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>();
+        while (running) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                int events = first.events().size();
+
+                // Linger for more events unless someone is waiting on this one
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                boolean urgent = first.urgent();
+                while (!urgent && events < batchSize) {
+                    Entry next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    events += next.events().size();
+                    urgent = next.urgent();
+                }
+
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                write(batch);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Entry> batch) {
+        List<Entry> entries = batch.stream().filter(entry -> !entry.events().isEmpty()).toList();
+        if (!entries.isEmpty()) {
+            int eventCount = entries.stream().mapToInt(entry -> entry.events().size()).sum();
+            RuntimeException failure = insertWithRetry(entries);
+            if (failure == null) {
+                eventsWritten.increment(eventCount);
+            } else {
+                // Narrow the failure down so a bad row only costs itself
+                log.warn("Failed to write a batch of {} game events, writing them one game at a time: {}",
+                    eventCount, failure.getMessage());
+                for (Entry entry : entries) {
+                    if (tryInsert(List.of(entry)) == null) {
+                        eventsWritten.increment(entry.events().size());
+                        entry.written().complete(null);
+                    } else {
+                        writeRows(entry);
+                    }
+                }
+            }
+        }
+        batch.forEach(entry -> entry.written().complete(null));
+    }
+
+    /**
+     * Inserts {@code entries} in one transaction, retrying with exponential
+     * backoff. Returns the last failure, or {@code null} once written.
+     */
+    private RuntimeException insertWithRetry(List<Entry> entries) {
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (attempt > 1) {
+                backoff(attempt - 1);
+            }
+            failure = tryInsert(entries);
+            if (failure == null) {
+                return null;
+            }
+        }
+        return failure;
+    }
+
+    private RuntimeException tryInsert(List<Entry> entries) {
+        try {
+            flushLatency.record(() -> transactionTemplate.executeWithoutResult(tx -> insert(entries)));
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Last resort for a game whose events fail together: every event gets a
+     * transaction of its own, and only the ones that still fail are dropped.
+     */
+    private void writeRows(Entry entry) {
+        RuntimeException failure = null;
+        for (PendingEvent event : entry.events()) {
+            RuntimeException e = tryInsert(List.of(new Entry(entry.gameId(), List.of(event), false, null)));
+            if (e == null) {
+                eventsWritten.increment();
+            } else {
+                log.error("Dropping event {} #{} of game {}", event.eventType(), event.sequenceNumber(),
+                    entry.gameId(), e);
+                eventsFailed.increment();
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            entry.written().completeExceptionally(failure);
+        } else {
+            entry.written().complete(null);
+        }
+    }
+
+    private void backoff(int retry) {
+        try {
+            Thread.sleep(Math.min(maxBackoffMs, backoffMs << Math.min(retry - 1, 16)));
+        } catch (InterruptedException e) {
+            // Shutting down; keep retrying without waiting
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void insert(List<Entry> batch) {
+        List<GameEvent> rows = new ArrayList<>();
+        for (Entry entry : batch) {
+            for (PendingEvent pending : entry.events()) {
+                GameEvent event = new GameEvent(
+                    gameRepository.getReferenceById(entry.gameId()),
+                    pending.playerId() != null ? playerRepository.getReferenceById(pending.playerId()) : null,
+                    pending.eventType(),
+                    toJson(pending),
+                    pending.sequenceNumber());
+                event.setCreatedAt(pending.createdAt());
+                rows.add(event);
+            }
+        }
+        gameEventRepository.saveAll(rows);
+    }
+
+    private String toJson(PendingEvent pending) {
+        try {
+            return objectMapper.writeValueAsString(pending.eventData());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + pending.eventType() + " event data", e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.demo.engine;
+
+/**
+ * Published by {@link GameStateFlusher} after it replaced a game's resident
+ * state with the one in the database, rejecting the moves it had not written.
+ */
+public record GameReloadedEvent(GameState state) {
+}
@@ -0,0 +1,606 @@
+package com.example.demo.engine;
+
+import com.example.demo.dto.PlayerResponse;
+import com.example.demo.entity.Card;
+import com.example.demo.entity.Game;
+import com.example.demo.entity.GameDeck;
+import com.example.demo.entity.GamePlayer;
+import com.example.demo.enums.CardColor;
+import com.example.demo.enums.GameDirection;
+import com.example.demo.enums.GameStatus;
+import com.example.demo.util.UnoGameRules;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Authoritative in-memory state of one game.
+ *
+ * <p>Moves are validated and applied here without touching the database.
+ * Every mutation records what it changed; {@link GameStateFlusher} drains
+ * those changes with {@link #drainChanges()} and writes them back in one
+ * transaction. Callers must hold the instance monitor while reading or
+ * mutating a state.
+ */
+@Getter
+public class GameState {
+
+    private static final int INITIAL_HAND_SIZE = 7;
+
+    private final Long gameId;
+    private final String gameCode;
+    private final Integer maxPlayers;
+    private final Integer minPlayers;
+    private final LocalDateTime createdAt;
+    private final PlayerResponse createdBy;
+    private final List<SeatState> seats = new ArrayList<>();
+
+    private GameStatus status;
+    private Integer currentPlayerIndex;
+    private GameDirection direction;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private PlayerResponse winner;
+    private Card topCard;
+    private CardColor activeColor;
+    private int nextEventSeq;
+    private long version; // version of the games row this state was last written as
+
+    // Card locations; hands live on the seats. The draw pile is a shuffled
+    // permutation of face ids consumed from drawPosition onwards.
+    private byte[] drawOrder = new byte[0];
+    private int drawPosition;
+    private long shuffleSeed;
+    private final List<Card> discardPile = new ArrayList<>();
+
+    // Changes not yet written back
+    private boolean gameDirty;
+    private final Set<SeatState> dirtySeats = new LinkedHashSet<>();
+    private boolean deckDirty;
+    private final List<PendingEvent> pendingEvents = new ArrayList<>();
+
+    // Cards moved in or out of hands since the last drain
+    private final Map<SeatState, PendingHand> handChanges = new LinkedHashMap<>();
+
+    private volatile long lastAccessNanos = System.nanoTime();
+
+    private GameState(Game game) {
+        this.gameId = game.getId();
+        this.gameCode = game.getGameCode();
+        this.maxPlayers = game.getMaxPlayers();
+        this.minPlayers = game.getMinPlayers();
+        this.createdAt = game.getCreatedAt();
+        this.createdBy = game.getCreatedBy() != null ? PlayerResponse.fromEntity(game.getCreatedBy()) : null;
+        this.status = game.getStatus();
+        this.currentPlayerIndex = game.getCurrentPlayerIndex();
+        this.direction = game.getDirection();
+        this.startedAt = game.getStartedAt();
+        this.finishedAt = game.getFinishedAt();
+        this.winner = game.getWinner() != null ? PlayerResponse.fromEntity(game.getWinner()) : null;
+        this.nextEventSeq = game.getNextEventSeq();
+        this.topCard = game.getTopCardId() != null ? CardFaces.get(game.getTopCardId()) : null;
+        this.activeColor = game.getActiveColor();
+        this.version = game.getVersion() != null ? game.getVersion() : 0L;
+    }
+
+    /**
+     * Rebuilds the state of a persisted game. Must run inside a transaction so
+     * the lazy player associations can be read; load the game with the
+     * {@link Game#WITH_STATE} graph to avoid a query per seat. {@code deck} is
+     * {@code null} until the game has started.
+     */
+    public static GameState fromEntities(Game game, GameDeck deck) {
+        GameState state = new GameState(game);
+
+        game.getGamePlayers().stream()
+            .sorted(Comparator.comparing(GamePlayer::getPlayerOrder).thenComparing(GamePlayer::getId))
+            .forEach(gp -> state.seats.add(new SeatState(gp)));
+
+        if (deck != null) {
+            state.drawOrder = deck.getDrawPile();
+            state.drawPosition = deck.getDrawPosition();
+            state.shuffleSeed = deck.getShuffleSeed();
+
+            state.discardPile.addAll(CardFaces.unpack(deck.getDiscardPile()));
+
+            byte[] hands = deck.getHands();
+            int pos = 0;
+            for (SeatState seat : state.seats) {
+                if (pos >= hands.length) {
+                    break;
+                }
+                int count = hands[pos++];
+                for (int i = 0; i < count; i++) {
+                    seat.getHand().add(CardFaces.get(hands[pos++]));
+                }
+            }
+        }
+        return state;
+    }
+
+    // ------------------------------------------------------------------
+    // Queries
+    // ------------------------------------------------------------------
+
+    public SeatState seatOf(Long playerId) {
+        return seats.stream()
+            .filter(seat -> seat.getPlayerId().equals(playerId))
+            .findFirst()
+            .orElse(null);
+    }
+
+    public SeatState getCurrentSeat() {
+        if (seats.isEmpty() || currentPlayerIndex >= seats.size()) {
+            return null;
+        }
+        return seats.get(currentPlayerIndex);
+    }
+
+    public int getActivePlayerCount() {
+        return (int) seats.stream().filter(SeatState::isActive).count();
+    }
+
+    public int getDeckSize() {
+        return drawOrder.length - drawPosition;
+    }
+
+    public int getDiscardSize() {
+        return discardPile.size();
+    }
+
+    public boolean isFull() {
+        return seats.size() >= maxPlayers;
+    }
+
+    public boolean canStart() {
+        return seats.size() >= minPlayers && seats.size() <= maxPlayers
+            && getActivePlayerCount() >= minPlayers;
+    }
+
+    public boolean isTerminal() {
+        return status == GameStatus.FINISHED || status == GameStatus.CANCELLED;
+    }
+
+    void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+
+    // ------------------------------------------------------------------
+    // Lobby
+    // ------------------------------------------------------------------
+
+    public void checkJoinable(Long playerId) {
+        if (status != GameStatus.WAITING_FOR_PLAYERS) {
+            throw new RuntimeException("Game is not accepting new players");
+        }
+        if (isFull()) {
+            throw new RuntimeException("Game is full");
+        }
+        if (seatOf(playerId) != null) {
+            throw new RuntimeException("Player already in this game");
+        }
+    }
+
+    /**
+     * Adds a seat for a {@link GamePlayer} row that has already been inserted.
+     */
+    public SeatState addSeat(GamePlayer gamePlayer) {
+        SeatState seat = new SeatState(gamePlayer);
+        seats.add(seat);
+        return seat;
+    }
+
+    /**
+     * Shuffles a full deck, deals the hands and flips the first card.
+     */
+    public void start(Random random) {
+        status = GameStatus.IN_PROGRESS;
+        startedAt = LocalDateTime.now();
+        gameDirty = true;
+
+        shuffleSeed = random.nextLong();
+        drawOrder = new byte[CardFaces.DECK_SIZE];
+        for (int i = 0; i < drawOrder.length; i++) {
+            drawOrder[i] = (byte) i;
+        }
+        drawPosition = 0;
+        shuffleDrawOrder();
+
+        for (SeatState seat : seats) {
+            if (!seat.isActive()) {
+                continue;
+            }
+            for (int i = 0; i < INITIAL_HAND_SIZE && getDeckSize() > 0; i++) {
+                addToHand(seat, takeFromDeck());
+            }
+            dirtySeats.add(seat);
+        }
+
+        // Start with the first non-wild card from the top of the deck
+        for (int i = drawPosition; i < drawOrder.length; i++) {
+            if (!UnoGameRules.requiresColorChoice(CardFaces.get(drawOrder[i]))) {
+                byte first = drawOrder[i];
+                drawOrder[i] = drawOrder[drawPosition];
+                drawOrder[drawPosition] = first;
+                break;
+            }
+        }
+        Card first = takeFromDeck();
+        setTopCard(first, first.getColor());
+
+        logEvent(null, "GAME_STARTED", PendingEvent.data("playerCount", seats.size()));
+    }
+
+    // ------------------------------------------------------------------
+    // Moves
+    // ------------------------------------------------------------------
+
+    /**
+     * Validates and applies a card play by the current player.
+     *
+     * @return the card that is now on top of the discard pile
+     */
+    public Card playCard(Long playerId, Long cardId, CardColor chosenColor) {
+        SeatState seat = requireTurn(playerId);
+
+        Card cardToPlay = CardFaces.find(cardId);
+        if (cardToPlay == null) {
+            throw new RuntimeException("Card not found");
+        }
+        if (seat.findInHand(cardId) == null) {
+            throw new RuntimeException("Card does not belong to you");
+        }
+        if (!UnoGameRules.canPlayCard(cardToPlay, topCard, activeColor)) {
+            throw new RuntimeException("Card cannot be played on current top card");
+        }
+        if (UnoGameRules.requiresColorChoice(cardToPlay) && !UnoGameRules.isValidColorChoice(chosenColor)) {
+            throw new RuntimeException("Valid color choice required for wild cards");
+        }
+
+        // Move the card from the hand onto the discard pile
+        removeFromHand(seat, cardToPlay);
+        setTopCard(cardToPlay, UnoGameRules.requiresColorChoice(cardToPlay) ? chosenColor : cardToPlay.getColor());
+
+        seat.setHasCalledUno(false);
+        dirtySeats.add(seat);
+
+        logEvent(playerId, "CARD_PLAYED",
+            PendingEvent.data("cardType", cardToPlay.getCardType(), "color", activeColor,
+                "value", cardToPlay.getValue(), "chosenColor", chosenColor));
+
+        if (UnoGameRules.causesReverse(cardToPlay)) {
+            reverseDirection();
+            logEvent(playerId, "DIRECTION_REVERSED", PendingEvent.data());
+        }
+
+        int drawCount = UnoGameRules.getCardDrawCount(cardToPlay);
+        if (drawCount > 0) {
+            SeatState victim = seats.get(nextIndex());
+            drawCards(victim, drawCount);
+            logEvent(victim.getPlayerId(), "FORCED_DRAW", PendingEvent.data("count", drawCount));
+        }
+
+        if (seat.getHand().isEmpty()) {
+            finish(seat.getPlayer());
+            logEvent(playerId, "GAME_WON",
+                PendingEvent.data("winnerName", seat.getPlayer().getPlayerName()));
+            return cardToPlay;
+        }
+
+        moveToNextPlayer();
+        if (UnoGameRules.causesSkip(cardToPlay)) {
+            moveToNextPlayer();
+        }
+        return cardToPlay;
+    }
+
+    public void drawCard(Long playerId) {
+        SeatState seat = requireTurn(playerId);
+        drawCards(seat, 1);
+        moveToNextPlayer();
+    }
+
+    public void callUno(Long playerId) {
+        requireInProgress();
+        SeatState seat = requireSeat(playerId);
+
+        if (seat.getCardsCount() != 1) {
+            throw new RuntimeException("You can only call UNO when you have exactly 1 card");
+        }
+
+        seat.setHasCalledUno(true);
+        dirtySeats.add(seat);
+
+        logEvent(playerId, "UNO_CALLED",
+            PendingEvent.data("playerName", seat.getPlayer().getPlayerName()));
+    }
+
+    public void leave(Long playerId) {
+        SeatState seat = requireSeat(playerId);
+
+        seat.setActive(false);
+        dirtySeats.add(seat);
+
+        logEvent(playerId, "PLAYER_LEFT",
+            PendingEvent.data("playerName", seat.getPlayer().getPlayerName()));
+
+        // If game hasn't started and creator left, cancel the game
+        if (status == GameStatus.WAITING_FOR_PLAYERS && createdBy != null && createdBy.getId().equals(playerId)) {
+            status = GameStatus.CANCELLED;
+            gameDirty = true;
+        }
+
+        // If game is in progress and not enough active players, end the game
+        if (status == GameStatus.IN_PROGRESS && getActivePlayerCount() < 2) {
+            finish(seats.stream()
+                .filter(SeatState::isActive)
+                .map(SeatState::getPlayer)
+                .findFirst()
+                .orElse(null));
+            logEvent(null, "GAME_ENDED_INSUFFICIENT_PLAYERS", PendingEvent.data());
+        }
+    }
+
+    public void logEvent(Long playerId, String eventType, Map<String, Object> eventData) {
+        pendingEvents.add(new PendingEvent(nextEventSeq++, playerId, eventType, eventData, LocalDateTime.now()));
+        gameDirty = true;
+    }
+
+    /**
+     * Carries on numbering after {@code previous}, the state of this game
+     * that this one replaces, so no sequence number is handed out twice.
+     * Call holding the locks of both.
+     */
+    public void continueNumbering(GameState previous) {
+        if (previous.nextEventSeq > nextEventSeq) {
+            nextEventSeq = previous.nextEventSeq;
+            gameDirty = true;
+        }
+    }
+
+    /**
+     * Takes the next event sequence number for a broadcast frame. Frames and
+     * logged events share one sequence, so a client's last seen frame also
+     * marks its place in {@code game_events}; the numbers taken here leave
+     * gaps there.
+     */
+    public int nextSequence() {
+        gameDirty = true;
+        return nextEventSeq++;
+    }
+
+    /**
+     * The sequence number most recently handed out. Call holding the lock.
+     */
+    public int lastSequence() {
+        return nextEventSeq - 1;
+    }
+
+    private void requireInProgress() {
+        if (status != GameStatus.IN_PROGRESS) {
+            throw new RuntimeException("Game is not in progress");
+        }
+    }
+
+    private SeatState requireSeat(Long playerId) {
+        SeatState seat = seatOf(playerId);
+        if (seat == null) {
+            throw new RuntimeException("Player not in this game");
+        }
+        return seat;
+    }
+
+    private SeatState requireTurn(Long playerId) {
+        requireInProgress();
+        SeatState current = getCurrentSeat();
+        if (current == null || !current.getPlayerId().equals(playerId)) {
+            throw new RuntimeException("It's not your turn");
+        }
+        return current;
+    }
+
+    private void drawCards(SeatState seat, int count) {
+        if (getDeckSize() < count) {
+            reshuffleDiscardPile();
+        }
+        for (int i = 0; i < count && getDeckSize() > 0; i++) {
+            addToHand(seat, takeFromDeck());
+        }
+        dirtySeats.add(seat);
+
+        logEvent(seat.getPlayerId(), "CARD_DRAWN", PendingEvent.data("count", count));
+    }
+
+    private void reshuffleDiscardPile() {
+        int cardCount = discardPile.size();
+
+        // Undrawn cards followed by the discard pile, then one shuffle pass
+        int remaining = getDeckSize();
+        byte[] order = Arrays.copyOfRange(drawOrder, drawPosition, drawPosition + remaining + cardCount);
+        for (int i = 0; i < cardCount; i++) {
+            order[remaining + i] = discardPile.get(i).getId().byteValue();
+        }
+        drawOrder = order;
+        drawPosition = 0;
+        discardPile.clear();
+        shuffleDrawOrder();
+
+        logEvent(null, "DECK_RESHUFFLED", PendingEvent.data("cardCount", cardCount));
+    }
+
+    private Card takeFromDeck() {
+        deckDirty = true;
+        return CardFaces.get(drawOrder[drawPosition++]);
+    }
+
+    /**
+     * Fisher-Yates shuffle of the undrawn cards, seeded from
+     * {@link #shuffleSeed} so a persisted deck can be replayed. The seed is
+     * advanced for the next reshuffle.
+     */
+    private void shuffleDrawOrder() {
+        Random random = new Random(shuffleSeed);
+        for (int i = drawOrder.length - 1; i > drawPosition; i--) {
+            int j = drawPosition + random.nextInt(i - drawPosition + 1);
+            byte swap = drawOrder[i];
+            drawOrder[i] = drawOrder[j];
+            drawOrder[j] = swap;
+        }
+        shuffleSeed = random.nextLong();
+        deckDirty = true;
+    }
+
+    private void addToHand(SeatState seat, Card card) {
+        seat.getHand().add(card);
+        handChange(seat).added().add(card);
+        deckDirty = true;
+    }
+
+    private void removeFromHand(SeatState seat, Card card) {
+        seat.getHand().remove(card);
+        handChange(seat).removed().add(card);
+        deckDirty = true;
+    }
+
+    private PendingHand handChange(SeatState seat) {
+        return handChanges.computeIfAbsent(seat, s -> new PendingHand(new ArrayList<>(), new ArrayList<>()));
+    }
+
+    private record PendingHand(List<Card> added, List<Card> removed) {
+    }
+
+    private void setTopCard(Card card, CardColor color) {
+        if (topCard != null) {
+            discardPile.add(topCard);
+        }
+        topCard = card;
+        activeColor = color;
+        gameDirty = true;
+        deckDirty = true;
+    }
+
+    private int nextIndex() {
+        if (direction == GameDirection.CLOCKWISE) {
+            return (currentPlayerIndex + 1) % seats.size();
+        }
+        return (currentPlayerIndex - 1 + seats.size()) % seats.size();
+    }
+
+    private void moveToNextPlayer() {
+        if (seats.isEmpty()) return;
+        currentPlayerIndex = nextIndex();
+        gameDirty = true;
+    }
+
+    private void reverseDirection() {
+        direction = (direction == GameDirection.CLOCKWISE)
+            ? GameDirection.COUNTER_CLOCKWISE : GameDirection.CLOCKWISE;
+        gameDirty = true;
+    }
+
+    private void finish(PlayerResponse winningPlayer) {
+        status = GameStatus.FINISHED;
+        winner = winningPlayer;
+        finishedAt = LocalDateTime.now();
+        gameDirty = true;
+    }
+
+    // ------------------------------------------------------------------
+    // Write-behind support
+    // ------------------------------------------------------------------
+
+    public boolean hasChanges() {
+        return gameDirty || deckDirty || !dirtySeats.isEmpty();
+    }
+
+    /**
+     * Takes the events logged since the previous call, for
+     * {@link GameEventJournal}.
+     */
+    public List<PendingEvent> drainEvents() {
+        List<PendingEvent> events = List.copyOf(pendingEvents);
+        pendingEvents.clear();
+        return events;
+    }
+
+    /**
+     * Takes the hand changes of every seat since the previous call, so each
+     * player can be sent their own.
+     */
+    public List<HandChange> drainHandChanges() {
+        List<HandChange> changes = new ArrayList<>(handChanges.size());
+        handChanges.forEach((seat, change) -> changes.add(new HandChange(seat.getPlayerId(),
+            List.copyOf(change.added()), List.copyOf(change.removed()), seat.getCardsCount())));
+        handChanges.clear();
+        return changes;
+    }
+
+    /**
+     * Copies and clears everything changed since the previous drain.
+     */
+    public GameChanges drainChanges() {
+        GameChanges.GameRow gameRow = gameDirty
+            ? new GameChanges.GameRow(status, currentPlayerIndex, direction, startedAt, finishedAt,
+                winner != null ? winner.getId() : null, nextEventSeq,
+                topCard != null ? topCard.getId().intValue() : null, activeColor)
+            : null;
+
+        List<GameChanges.SeatRow> seatRows = dirtySeats.stream()
+            .map(seat -> new GameChanges.SeatRow(seat.getGamePlayerId(), seat.isActive(),
+                seat.getCardsCount(), seat.isHasCalledUno()))
+            .toList();
+
+        GameChanges.DeckRow deckRow = deckDirty ? packDeck() : null;
+
+        GameChanges changes = new GameChanges(gameId, version, gameRow, seatRows, deckRow);
+
+        gameDirty = false;
+        dirtySeats.clear();
+        deckDirty = false;
+        return changes;
+    }
+
+    /**
+     * Records the row version a flush committed, which the next flush expects
+     * to find.
+     */
+    public void written(long newVersion) {
+        version = newVersion;
+    }
+
+    /**
+     * Puts back changes whose write failed so the next flush retries them. The
+     * current in-memory values are written, which are at least as new as the
+     * ones in {@code changes}.
+     */
+    public void restoreChanges(GameChanges changes) {
+        if (changes.game() != null) {
+            gameDirty = true;
+        }
+        Set<Long> seatIds = new HashSet<>();
+        changes.seats().forEach(row -> seatIds.add(row.gamePlayerId()));
+        seats.stream().filter(seat -> seatIds.contains(seat.getGamePlayerId())).forEach(dirtySeats::add);
+        if (changes.deck() != null) {
+            deckDirty = true;
+        }
+    }
+
+    private GameChanges.DeckRow packDeck() {
+        int handsLength = seats.size();
+        for (SeatState seat : seats) {
+            handsLength += seat.getHand().size();
+        }
+        byte[] hands = new byte[handsLength];
+        int pos = 0;
+        for (SeatState seat : seats) {
+            hands[pos++] = (byte) seat.getHand().size();
+            for (Card card : seat.getHand()) {
+                hands[pos++] = card.getId().byteValue();
+            }
+        }
+
+        return new GameChanges.DeckRow(drawOrder.clone(), drawPosition, shuffleSeed,
+            CardFaces.pack(discardPile), hands);
+    }
+}
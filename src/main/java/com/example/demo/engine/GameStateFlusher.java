@@ -0,0 +1,259 @@
+package com.example.demo.engine;
+
+import com.example.demo.entity.*;
+import com.example.demo.repository.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind persistence for {@link GameState}. Games marked dirty are
+ * flushed on a background thread every {@code uno.engine.flush-interval-ms};
+ * each flush writes all of a game's pending changes in one transaction.
+ * Game events are written separately by {@link GameEventJournal}.
+ *
+ * <p>Every flush bumps the version of the games row and expects to find the
+ * version it wrote last. If another writer got there first the resident state
+ * is stale. It is replaced by the state in the database, and the moves it had
+ * not written yet are rejected: they were answered and broadcast already, so
+ * a {@link GameReloadedEvent} is published for the game's players to be told.
+ * Commands still waiting for the stale state are retried on the new one.
+ */
+@Component
+@RequiredArgsConstructor
+public class GameStateFlusher {
+
+    private static final Logger log = LoggerFactory.getLogger(GameStateFlusher.class);
+
+    private final GameStateStore gameStateStore;
+    private final GameRepository gameRepository;
+    private final GameDeckRepository gameDeckRepository;
+    private final PlayerRepository playerRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final GameCommandRetry gameCommandRetry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${uno.engine.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${uno.engine.idle-eviction-minutes:30}")
+    private long idleEvictionMinutes;
+
+    private final Set<GameState> dirty = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService executor;
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "game-state-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushCycle, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushAll();
+    }
+
+    /**
+     * Schedules the state for the next flush once the surrounding transaction
+     * commits; immediately when there is none.
+     */
+    public void markDirty(GameState state) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dirty.add(state);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dirty.add(state);
+            }
+        });
+    }
+
+    /**
+     * Writes every pending change synchronously.
+     */
+    public synchronized void flushAll() {
+        for (Iterator<GameState> it = dirty.iterator(); it.hasNext();) {
+            GameState state = it.next();
+            it.remove();
+            flush(state);
+        }
+    }
+
+    private void flushCycle() {
+        try {
+            flushAll();
+            evictIdle();
+        } catch (RuntimeException e) {
+            log.error("Game state flush cycle failed", e);
+        }
+    }
+
+    private void flush(GameState state) {
+        GameChanges changes;
+        synchronized (state) {
+            if (!state.hasChanges()) {
+                return;
+            }
+            if (gameStateStore.find(state.getGameCode()).orElse(null) != state) {
+                // Replaced after a conflict; its last moves were rejected
+                log.warn("Dropping changes of replaced game state {}", state.getGameCode());
+                return;
+            }
+            changes = state.drainChanges();
+        }
+
+        try {
+            Game game = transactionTemplate.execute(tx -> write(changes));
+            synchronized (state) {
+                // Read after commit; a forced increment lands at commit time
+                state.written(game.getVersion());
+            }
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Game {} was changed by another writer, reloading it", state.getGameCode());
+            gameCommandRetry.recordConflict("flush");
+            reload(state);
+        } catch (RuntimeException e) {
+            if (gameStateStore.find(state.getGameCode()).orElse(null) != state) {
+                // Evicted after a rollback; its rows were never committed
+                log.warn("Dropping changes of evicted game {}", state.getGameCode());
+                return;
+            }
+            log.warn("Failed to flush game {}, will retry: {}", state.getGameCode(), e.getMessage());
+            synchronized (state) {
+                state.restoreChanges(changes);
+            }
+            dirty.add(state);
+        }
+    }
+
+    /**
+     * Replaces {@code stale} with the state in the database. Whatever it
+     * applied since its last successful write is lost.
+     */
+    private void reload(GameState stale) {
+        if (!gameStateStore.evict(stale)) {
+            return;
+        }
+        GameState fresh;
+        try {
+            fresh = readOnlyTransaction.execute(tx -> gameStateStore.get(stale.getGameCode()));
+        } catch (RuntimeException e) {
+            // Not resident now; the next command loads it
+            log.error("Failed to reload game {}", stale.getGameCode(), e);
+            return;
+        }
+        synchronized (stale) {
+            synchronized (fresh) {
+                fresh.continueNumbering(stale);
+            }
+        }
+        eventPublisher.publishEvent(new GameReloadedEvent(fresh));
+    }
+
+    private Game write(GameChanges changes) {
+        Game game = gameRepository.findById(changes.gameId())
+            .orElseThrow(() -> new IllegalStateException("Game " + changes.gameId() + " no longer exists"));
+        if (!Objects.equals(game.getVersion(), changes.version())) {
+            throw new ObjectOptimisticLockingFailureException(Game.class, changes.gameId());
+        }
+
+        if (changes.game() != null) {
+            GameChanges.GameRow row = changes.game();
+            game.setStatus(row.status());
+            game.setCurrentPlayerIndex(row.currentPlayerIndex());
+            game.setDirection(row.direction());
+            game.setStartedAt(row.startedAt());
+            game.setFinishedAt(row.finishedAt());
+            game.setWinner(row.winnerId() != null ? playerRepository.getReferenceById(row.winnerId()) : null);
+            game.setNextEventSeq(row.nextEventSeq());
+            game.setTopCardId(row.topCardId());
+            game.setActiveColor(row.activeColor());
+        }
+
+        if (!changes.seats().isEmpty()) {
+            Map<Long, GamePlayer> gamePlayers = game.getGamePlayers().stream()
+                .collect(Collectors.toMap(GamePlayer::getId, Function.identity()));
+            for (GameChanges.SeatRow row : changes.seats()) {
+                GamePlayer gamePlayer = gamePlayers.get(row.gamePlayerId());
+                if (gamePlayer == null) {
+                    throw new IllegalStateException("Game player " + row.gamePlayerId() + " is not committed yet");
+                }
+                gamePlayer.setIsActive(row.active());
+                gamePlayer.setCardsCount(row.cardsCount());
+                gamePlayer.setHasCalledUno(row.hasCalledUno());
+            }
+        }
+
+        if (changes.deck() != null) {
+            GameChanges.DeckRow row = changes.deck();
+            GameDeck deck = gameDeckRepository.findByGameId(game.getId()).orElseGet(() -> new GameDeck(game));
+            deck.setDrawPile(row.drawPile());
+            deck.setDrawPosition(row.drawPosition());
+            deck.setShuffleSeed(row.shuffleSeed());
+            deck.setDiscardPile(row.discardPile());
+            deck.setHands(row.hands());
+            gameDeckRepository.save(deck);
+        }
+
+        if (changes.game() == null) {
+            // Seat or deck only; still claim the games row
+            entityManager.lock(game, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        }
+        return game;
+    }
+
+    private void evictIdle() {
+        long idleNanos = TimeUnit.MINUTES.toNanos(idleEvictionMinutes);
+        long now = System.nanoTime();
+        for (GameState state : gameStateStore.all()) {
+            synchronized (state) {
+                boolean idle = now - state.getLastAccessNanos() > idleNanos;
+                if ((state.isTerminal() || idle) && !state.hasChanges() && !dirty.contains(state)) {
+                    gameStateStore.evict(state.getGameCode());
+                }
+            }
+        }
+    }
+}
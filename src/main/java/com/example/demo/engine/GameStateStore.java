@@ -0,0 +1,153 @@
+package com.example.demo.engine;
+
+import com.example.demo.entity.Game;
+import com.example.demo.entity.GameDeck;
+import com.example.demo.repository.GameDeckRepository;
+import com.example.demo.repository.GameRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the resident {@link GameState} of every game touched on this node,
+ * keyed by game code. A miss rehydrates the game from the database, so a
+ * restarted node picks up where the previous one left off. A rehydration
+ * reads the game with its seats and players in one query, and the deck in a
+ * second one.
+ */
+@Component
+@RequiredArgsConstructor
+public class GameStateStore {
+
+    private final GameRepository gameRepository;
+    private final GameDeckRepository gameDeckRepository;
+
+    private final ConcurrentMap<String, GameState> states = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the resident state, loading it from the database on a miss. Must
+     * be called inside a transaction.
+     */
+    public GameState get(String gameCode) {
+        GameState state = states.get(gameCode);
+        if (state == null) {
+            Game game = gameRepository.findByGameCodeWithState(gameCode)
+                .orElseThrow(() -> new RuntimeException("Game not found"));
+            state = hydrate(game, gameDeckRepository.findByGameId(game.getId()).orElse(null));
+        }
+        state.touch();
+        return state;
+    }
+
+    /**
+     * Returns the states of games loaded with
+     * {@link GameRepository#findPlayerActiveGamesWithState}. The decks of the
+     * games that are not resident are read in a single query. Must be called
+     * inside that same transaction.
+     */
+    public List<GameState> getAll(List<Game> games) {
+        Set<Long> missing = games.stream()
+            .filter(game -> !states.containsKey(game.getGameCode()))
+            .map(Game::getId)
+            .collect(Collectors.toSet());
+        Map<Long, GameDeck> decks = missing.isEmpty() ? Map.of() : gameDeckRepository.findByGameIdIn(missing)
+            .stream()
+            .collect(Collectors.toMap(deck -> deck.getGame().getId(), Function.identity()));
+
+        List<GameState> result = new ArrayList<>(games.size());
+        for (Game game : games) {
+            GameState state = states.get(game.getGameCode());
+            if (state == null) {
+                // Evicted since its deck was looked up
+                state = missing.contains(game.getId())
+                    ? hydrate(game, decks.get(game.getId()))
+                    : get(game.getGameCode());
+            }
+            state.touch();
+            result.add(state);
+        }
+        return result;
+    }
+
+    private GameState hydrate(Game game, GameDeck deck) {
+        // Never below the journal: rows written before next_event_seq existed
+        // have none, and a flush that lost to the journal has a stale one
+        int journalled = Optional.ofNullable(game.getLastEventSeq()).orElse(0) + 1;
+        if (game.getNextEventSeq() == null || game.getNextEventSeq() < journalled) {
+            game.setNextEventSeq(journalled);
+        }
+        GameState loaded = GameState.fromEntities(game, deck);
+        return Optional.ofNullable(states.putIfAbsent(game.getGameCode(), loaded)).orElse(loaded);
+    }
+
+    /**
+     * Returns the resident state without touching the database.
+     */
+    public Optional<GameState> find(String gameCode) {
+        return Optional.ofNullable(states.get(gameCode));
+    }
+
+    public void register(GameState state) {
+        states.put(state.getGameCode(), state);
+    }
+
+    public void evict(String gameCode) {
+        states.remove(gameCode);
+    }
+
+    /**
+     * Evicts {@code state} unless another state of its game has replaced it
+     * meanwhile. Returns whether it was resident.
+     */
+    public boolean evict(GameState state) {
+        return states.remove(state.getGameCode(), state);
+    }
+
+    /**
+     * Fails with an optimistic-lock conflict unless {@code state} is still
+     * the resident state of its game. Commands call this once they hold the
+     * state lock: a state that was reloaded or evicted while they waited must
+     * not take their move, and {@link GameCommandRetry} runs them again on
+     * the current one.
+     */
+    public void checkCurrent(GameState state) {
+        if (states.get(state.getGameCode()) != state) {
+            throw new ObjectOptimisticLockingFailureException(Game.class, state.getGameId());
+        }
+    }
+
+    public Collection<GameState> all() {
+        return states.values();
+    }
+
+    /**
+     * Drops the state if the surrounding transaction rolls back, so rows that
+     * were never committed are not served from memory.
+     */
+    public void evictOnRollback(String gameCode) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    evict(gameCode);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.engine;
+
+import com.example.demo.entity.Card;
+
+import java.util.List;
+
+/**
+ * Cards that entered and left one player's hand since the previous
+ * {@link GameState#drainHandChanges()}. Added cards sit at the end of the
+ * hand, in the order given; {@code handSize} is the size afterwards.
+ */
+public record HandChange(Long playerId, List<Card> added, List<Card> removed, int handSize) {
+}
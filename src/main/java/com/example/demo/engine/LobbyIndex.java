@@ -0,0 +1,267 @@
+package com.example.demo.engine;
+
+import com.example.demo.dto.LobbyGameSummary;
+import com.example.demo.dto.LobbyPage;
+import com.example.demo.enums.GameStatus;
+import com.example.demo.repository.GameRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The joinable games of this node, kept up to date as games are created,
+ * joined, started and left, so listing the lobby does not query the
+ * database. Filled from the database once at startup.
+ *
+ * <p>{@link #update(GameState)} runs with every write of a game, under its
+ * lock, and takes effect right away. Should the surrounding transaction roll
+ * back, the entry is rebuilt from whatever state survived: the resident one,
+ * or else the committed rows.
+ *
+ * <p>Entries are also kept in keyset order, oldest first by
+ * {@code (createdAt, id)}, so a page starts with a seek to its cursor rather
+ * than a scan from the front.
+ *
+ * <p>Every change bumps {@link #version()} and marks the game changed until
+ * {@link #drainChanged()} picks it up, which is how the lobby topic learns
+ * what to send.
+ */
+@Component
+@RequiredArgsConstructor
+public class LobbyIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LobbyIndex.class);
+
+    /** Page size when none or a larger one is asked for */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Keyset order of the lobby; createdAt alone is not unique
+    private static final Comparator<LobbyGameSummary> OLDEST_FIRST = Comparator
+        .comparing(LobbyGameSummary::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(LobbyGameSummary::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final GameRepository gameRepository;
+    private final GameStateStore gameStateStore;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, LobbyGameSummary> games = new ConcurrentHashMap<>();
+    // The same entries in keyset order, changed only inside games.compute
+    private final NavigableSet<LobbyGameSummary> ordered = new ConcurrentSkipListSet<>(OLDEST_FIRST);
+    private final AtomicLong version = new AtomicLong();
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+    private TransactionTemplate reloadTemplate;
+
+    @PostConstruct
+    void init() {
+        // Rollback handlers read the committed rows, outside the finished transaction
+        reloadTemplate = new TransactionTemplate(transactionManager);
+        reloadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        reloadTemplate.setReadOnly(true);
+
+        Gauge.builder("uno.lobby.games", games, ConcurrentMap::size)
+            .description("Joinable games listed in the lobby")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<LobbyGameSummary> waiting = reloadTemplate.execute(status ->
+            gameRepository.findLobbySummaries(GameStatus.WAITING_FOR_PLAYERS, null));
+        // Anything updated meanwhile is newer than the rows
+        waiting.forEach(summary -> games.compute(summary.getGameCode(),
+            (gameCode, current) -> current != null ? current : replace(null, summary)));
+        log.info("Lobby index loaded {} joinable games", waiting.size());
+    }
+
+    /**
+     * Joinable games, oldest first.
+     */
+    public List<LobbyGameSummary> availableGames() {
+        return List.copyOf(ordered);
+    }
+
+    public Optional<LobbyGameSummary> find(String gameCode) {
+        return Optional.ofNullable(games.get(gameCode));
+    }
+
+    /**
+     * Number of changes made so far. Read it before {@link #availableGames()}
+     * to know which changes a listing holds at least.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Takes the codes of the games changed since the last call. Every change
+     * behind them is counted in a {@link #version()} read afterwards, and
+     * visible to {@link #find(String)} from then on.
+     */
+    public Set<String> drainChanged() {
+        Set<String> drained = new HashSet<>();
+        for (Iterator<String> it = changed.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    /**
+     * Marks games as changed again, for a drained set whose changes could
+     * not be sent.
+     */
+    public void requeue(Collection<String> gameCodes) {
+        changed.addAll(gameCodes);
+    }
+
+    /**
+     * Up to {@code limit} joinable games after {@code cursor}, oldest first,
+     * with at least {@code minFreeSeats} free seats and, if given, exactly
+     * {@code maxPlayers} seats. A {@code null} cursor starts at the oldest game.
+     */
+    public LobbyPage page(String cursor, int limit, int minFreeSeats, Integer maxPlayers) {
+        int size = limit < 1 || limit > MAX_PAGE_SIZE ? MAX_PAGE_SIZE : limit;
+        NavigableSet<LobbyGameSummary> after = cursor == null ? ordered : ordered.tailSet(decode(cursor), false);
+
+        List<LobbyGameSummary> page = new ArrayList<>(size);
+        boolean more = false;
+        for (LobbyGameSummary game : after) {
+            if (game.getFreeSeats() < minFreeSeats
+                    || (maxPlayers != null && !maxPlayers.equals(game.getMaxPlayers()))) {
+                continue;
+            }
+            if (page.size() == size) {
+                more = true;
+                break;
+            }
+            page.add(game);
+        }
+        return new LobbyPage(page, more ? encode(page.get(page.size() - 1)) : null);
+    }
+
+    static String encode(LobbyGameSummary game) {
+        String key = game.getCreatedAt() + "|" + game.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A probe holding just the keyset columns of the cursor.
+     */
+    static LobbyGameSummary decode(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int bar = key.lastIndexOf('|');
+            LobbyGameSummary probe = new LobbyGameSummary();
+            String createdAt = key.substring(0, bar);
+            probe.setCreatedAt("null".equals(createdAt) ? null : LocalDateTime.parse(createdAt));
+            probe.setId(Long.valueOf(key.substring(bar + 1)));
+            return probe;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Lists the game while it waits for players and has a free seat, and drops
+     * it otherwise. Call while holding the state lock.
+     */
+    public void update(GameState state) {
+        if (apply(state)) {
+            refreshOnRollback(state.getGameCode());
+        }
+    }
+
+    /**
+     * Returns whether the game was or is listed.
+     */
+    private boolean apply(GameState state) {
+        String gameCode = state.getGameCode();
+        if (state.getStatus() == GameStatus.WAITING_FOR_PLAYERS && !state.isFull()) {
+            LobbyGameSummary summary = LobbyGameSummary.fromState(state);
+            games.compute(gameCode, (code, current) -> replace(current, summary));
+            return true;
+        }
+        if (!games.containsKey(gameCode)) {
+            // Not listed before either; the common case, a running game
+            return false;
+        }
+        games.computeIfPresent(gameCode, (code, current) -> replace(current, null));
+        return true;
+    }
+
+    /**
+     * Swaps the entry in the keyset order. Runs inside {@code games.compute},
+     * which serializes it per game.
+     */
+    private LobbyGameSummary replace(LobbyGameSummary current, LobbyGameSummary next) {
+        if (current != null) {
+            ordered.remove(current);
+        }
+        if (next != null) {
+            ordered.add(next);
+        }
+        version.incrementAndGet();
+        changed.add(next != null ? next.getGameCode() : current.getGameCode());
+        return next;
+    }
+
+    private void refreshOnRollback(String gameCode) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    refresh(gameCode);
+                }
+            }
+        });
+    }
+
+    private void refresh(String gameCode) {
+        Optional<GameState> resident = gameStateStore.find(gameCode);
+        if (resident.isPresent()) {
+            GameState state = resident.get();
+            synchronized (state) {
+                apply(state);
+            }
+            return;
+        }
+        List<LobbyGameSummary> rows = reloadTemplate.execute(status ->
+            gameRepository.findLobbySummaries(GameStatus.WAITING_FOR_PLAYERS, gameCode));
+        LobbyGameSummary committed = rows.isEmpty() ? null : rows.get(0);
+        games.compute(gameCode,
+            (code, current) -> current == null && committed == null ? null : replace(current, committed));
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.engine;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A game event produced in memory that has not been written to
+ * {@code game_events} yet. The data is serialized to JSON by
+ * {@link GameEventJournal} on its writer thread.
+ */
+public record PendingEvent(int sequenceNumber, Long playerId, String eventType,
+        Map<String, Object> eventData, LocalDateTime createdAt) {
+
+    /**
+     * Builds event data from alternating keys and values. Unlike
+     * {@link Map#of} null values are allowed.
+     */
+    public static Map<String, Object> data(Object... keysAndValues) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            data.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.engine;
+
+import com.example.demo.dto.PlayerResponse;
+import com.example.demo.entity.Card;
+import com.example.demo.entity.GamePlayer;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory view of one {@link GamePlayer} row, including the cards in hand.
+ */
+@Getter
+public class SeatState {
+
+    private final Long gamePlayerId;
+    private final PlayerResponse player;
+    private final Integer playerOrder;
+    private final LocalDateTime joinedAt;
+    private final List<Card> hand = new ArrayList<>();
+
+    @Setter
+    private boolean active;
+
+    @Setter
+    private boolean hasCalledUno;
+
+    SeatState(GamePlayer gamePlayer) {
+        this.gamePlayerId = gamePlayer.getId();
+        this.player = PlayerResponse.fromEntity(gamePlayer.getPlayer());
+        this.playerOrder = gamePlayer.getPlayerOrder();
+        this.joinedAt = gamePlayer.getJoinedAt();
+        this.active = Boolean.TRUE.equals(gamePlayer.getIsActive());
+        this.hasCalledUno = Boolean.TRUE.equals(gamePlayer.getHasCalledUno());
+    }
+
+    public Long getPlayerId() {
+        return player.getId();
+    }
+
+    public int getCardsCount() {
+        return hand.size();
+    }
+
+    Card findInHand(Long cardId) {
+        return hand.stream()
+            .filter(card -> card.getId().equals(cardId))
+            .findFirst()
+            .orElse(null);
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.demo.entity;
 
+import com.example.demo.enums.CardColor;
 import com.example.demo.enums.GameDirection;
 import com.example.demo.enums.GameStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Formula;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -13,15 +15,28 @@ import java.util.List;
 
 @Entity
 @Table(name = "games")
+@NamedEntityGraph(name = Game.WITH_STATE, attributeNodes = {
+    @NamedAttributeNode("createdBy"),
+    @NamedAttributeNode("winner"),
+    @NamedAttributeNode(value = "gamePlayers", subgraph = "seats")
+}, subgraphs = @NamedSubgraph(name = "seats", attributeNodes = @NamedAttributeNode("player")))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Game {
     
+    /** Entity graph with everything needed to rebuild the game state */
+    public static final String WITH_STATE = "Game.withState";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "games_seq")
+    @SequenceGenerator(name = "games_seq", sequenceName = "games_seq", allocationSize = 50)
     private Long id;
     
+    @Version
+    @Column(name = "version")
+    private Long version; // Optimistic lock; bumped on every write
+    
     @Column(name = "game_code", unique = true, nullable = false)
     private String gameCode; // Unique code for players to join
     
@@ -35,6 +50,13 @@ public class Game {
     @Column(name = "min_players")
     private Integer minPlayers = 2;
     
+    @Column(name = "next_event_seq")
+    private Integer nextEventSeq = 1; // Sequence number of the next game event
+    
+    // Last journalled event, read with the row so hydration needs no query of its own
+    @Formula("(SELECT COALESCE(MAX(ge.sequence_number), 0) FROM game_events ge WHERE ge.game_id = id)")
+    private Integer lastEventSeq;
+    
     @Column(name = "current_player_index")
     private Integer currentPlayerIndex = 0;
     
@@ -51,6 +73,13 @@ public class Game {
     @Column(name = "finished_at")
     private LocalDateTime finishedAt;
     
+    @Column(name = "top_card_id")
+    private Integer topCardId; // Face id of the top card, see CardFaces; not part of the deck's discard pile
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "active_color", length = 10)
+    private CardColor activeColor; // Color to match, the chosen one after a wild card
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "winner_id")
     private Player winner;
@@ -62,9 +91,6 @@ public class Game {
     @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
     private List<GamePlayer> gamePlayers = new ArrayList<>();
     
-    @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private List<Card> cards = new ArrayList<>();
-    
     public Game(String gameCode, Player createdBy) {
         this.gameCode = gameCode;
         this.createdBy = createdBy;
@@ -101,11 +127,4 @@ public class Game {
         direction = (direction == GameDirection.CLOCKWISE) ? 
             GameDirection.COUNTER_CLOCKWISE : GameDirection.CLOCKWISE;
     }
-    
-    public Card getTopCard() {
-        return cards.stream()
-            .filter(Card::getIsTopCard)
-            .findFirst()
-            .orElse(null);
-    }
 }
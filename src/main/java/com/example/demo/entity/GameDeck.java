@@ -0,0 +1,52 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * All card locations of one game in a single row, as byte arrays of face ids
+ * (see {@link com.example.demo.engine.CardFaces}). The draw pile is shuffled
+ * once and drawn from {@code drawPosition} onwards. The top card itself is
+ * kept on the game row, the discard pile holds the cards beneath it.
+ */
+@Entity
+@Table(name = "game_decks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameDeck {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_decks_seq")
+    @SequenceGenerator(name = "game_decks_seq", sequenceName = "game_decks_seq", allocationSize = 50)
+    private Long id;
+    
+    @Version
+    @Column(name = "version")
+    private Long version; // Optimistic lock; bumped on every write
+    
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "game_id", nullable = false, unique = true)
+    private Game game;
+    
+    @Column(name = "draw_pile", nullable = false)
+    private byte[] drawPile = new byte[0];
+    
+    @Column(name = "draw_position", nullable = false)
+    private Integer drawPosition = 0; // index of the next card to draw
+    
+    @Column(name = "shuffle_seed", nullable = false)
+    private Long shuffleSeed = 0L; // seed for the next reshuffle
+    
+    @Column(name = "discard_pile", nullable = false)
+    private byte[] discardPile = new byte[0]; // beneath the top card, newest last
+    
+    @Column(name = "hands", nullable = false)
+    private byte[] hands = new byte[0]; // per seat in seat order: card count, then face ids
+    
+    public GameDeck(Game game) {
+        this.game = game;
+    }
+}
@@ -8,14 +8,16 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "game_events")
+@Table(name = "game_events",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"game_id", "sequence_number"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class GameEvent {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_events_seq")
+    @SequenceGenerator(name = "game_events_seq", sequenceName = "game_events_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
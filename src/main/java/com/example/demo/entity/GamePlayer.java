@@ -6,7 +6,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Entity
 @Table(name = "game_players")
@@ -16,9 +15,14 @@ import java.util.List;
 public class GamePlayer {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_players_seq")
+    @SequenceGenerator(name = "game_players_seq", sequenceName = "game_players_seq", allocationSize = 50)
     private Long id;
     
+    @Version
+    @Column(name = "version")
+    private Long version; // Optimistic lock; bumped on every write
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "game_id", nullable = false)
     private Game game;
@@ -52,20 +56,6 @@ public class GamePlayer {
         this.hasCalledUno = false;
     }
     
-    public List<Card> getHand() {
-        return game.getCards().stream()
-            .filter(card -> card.getPlayer() != null && 
-                           card.getPlayer().getId().equals(player.getId()) &&
-                           !card.getIsInDeck() && 
-                           !card.getIsTopCard())
-            .sorted((c1, c2) -> {
-                if (c1.getPositionInHand() == null) return 1;
-                if (c2.getPositionInHand() == null) return -1;
-                return c1.getPositionInHand().compareTo(c2.getPositionInHand());
-            })
-            .toList();
-    }
-    
     public boolean hasWon() {
         return cardsCount == 0;
     }
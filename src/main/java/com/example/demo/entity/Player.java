@@ -13,7 +13,8 @@ import lombok.NoArgsConstructor;
 public class Player {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "players_seq")
+    @SequenceGenerator(name = "players_seq", sequenceName = "players_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "player_name", nullable = false, unique = true)
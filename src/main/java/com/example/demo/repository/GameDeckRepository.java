@@ -0,0 +1,17 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.GameDeck;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GameDeckRepository extends JpaRepository<GameDeck, Long> {
+    
+    Optional<GameDeck> findByGameId(Long gameId);
+    
+    List<GameDeck> findByGameIdIn(Collection<Long> gameIds);
+}
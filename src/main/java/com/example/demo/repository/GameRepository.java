@@ -1,7 +1,9 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.LobbyGameSummary;
 import com.example.demo.entity.Game;
 import com.example.demo.enums.GameStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,15 +17,30 @@ public interface GameRepository extends JpaRepository<Game, Long> {
     
     Optional<Game> findByGameCode(String gameCode);
     
+    /**
+     * Loads the game with its creator, winner, seats and seated players in
+     * one query.
+     */
+    @EntityGraph(Game.WITH_STATE)
+    @Query("SELECT g FROM Game g WHERE g.gameCode = :gameCode")
+    Optional<Game> findByGameCodeWithState(@Param("gameCode") String gameCode);
+    
     boolean existsByGameCode(String gameCode);
     
     List<Game> findByStatus(GameStatus status);
     
-    @Query("SELECT g FROM Game g WHERE g.status = :status AND SIZE(g.gamePlayers) < g.maxPlayers")
-    List<Game> findAvailableGames(@Param("status") GameStatus status);
+    @Query("SELECT new com.example.demo.dto.LobbyGameSummary(g.id, g.gameCode, g.status, COUNT(gp), g.maxPlayers, g.minPlayers, " +
+           "c.id, c.playerName, g.createdAt) FROM Game g LEFT JOIN g.createdBy c LEFT JOIN g.gamePlayers gp " +
+           "WHERE g.status = :status AND (:gameCode IS NULL OR g.gameCode = :gameCode) " +
+           "GROUP BY g.id, g.gameCode, g.status, g.maxPlayers, g.minPlayers, c.id, c.playerName, g.createdAt " +
+           "HAVING COUNT(gp) < g.maxPlayers")
+    List<LobbyGameSummary> findLobbySummaries(@Param("status") GameStatus status, @Param("gameCode") String gameCode);
     
-    @Query("SELECT g FROM Game g JOIN g.gamePlayers gp WHERE gp.player.id = :playerId AND g.status IN :statuses")
-    List<Game> findPlayerActiveGames(@Param("playerId") Long playerId, @Param("statuses") List<GameStatus> statuses);
+    @EntityGraph(Game.WITH_STATE)
+    @Query("SELECT g FROM Game g WHERE g.status IN :statuses AND g.id IN " +
+           "(SELECT gp.game.id FROM GamePlayer gp WHERE gp.player.id = :playerId)")
+    List<Game> findPlayerActiveGamesWithState(@Param("playerId") Long playerId,
+                                              @Param("statuses") List<GameStatus> statuses);
     
     @Query("SELECT g FROM Game g WHERE g.createdBy.id = :playerId")
     List<Game> findGamesByCreator(@Param("playerId") Long playerId);
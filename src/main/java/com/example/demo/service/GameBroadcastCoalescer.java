@@ -0,0 +1,126 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.OptimizedGameEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collects the events broadcast to a game within one tick of
+ * {@code uno.broadcast.tick-ms} and hands them on together, so a command
+ * that produces several events costs one frame instead of one per event.
+ *
+ * <p>The first event for a game opens its tick. Events are handed on in the
+ * order they were submitted, except GAME_UPDATE: it is a snapshot of the
+ * whole game, so only the latest one within a tick is kept, in the place of
+ * its last submission. A tick of 0, or an instance that was never started,
+ * hands every event on at once.
+ */
+@Component
+public class GameBroadcastCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(GameBroadcastCoalescer.class);
+
+    @Value("${uno.broadcast.tick-ms:5}")
+    private long tickMs;
+
+    private final ConcurrentMap<String, Tick> ticks = new ConcurrentHashMap<>();
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        if (tickMs <= 0) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "game-broadcast-tick");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever is still waiting goes out now
+        ticks.keySet().forEach(this::close);
+    }
+
+    /**
+     * Queues {@code event} for the current tick of {@code gameCode}. When the
+     * tick closes, {@code publisher} of the call that opened it receives the
+     * events in order.
+     */
+    public void submit(String gameCode, OptimizedGameEvent event, Consumer<List<OptimizedGameEvent>> publisher) {
+        if (executor == null) {
+            publisher.accept(List.of(event));
+            return;
+        }
+
+        boolean[] opened = new boolean[1];
+        ticks.compute(gameCode, (code, tick) -> {
+            if (tick == null) {
+                tick = new Tick(publisher);
+                opened[0] = true;
+            }
+            tick.add(event);
+            return tick;
+        });
+
+        if (opened[0]) {
+            executor.schedule(() -> close(gameCode), tickMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void close(String gameCode) {
+        Tick tick = ticks.remove(gameCode);
+        if (tick == null) {
+            return;
+        }
+        try {
+            tick.publisher.accept(tick.events);
+        } catch (RuntimeException e) {
+            log.error("Failed to publish {} events of game {}", tick.events.size(), gameCode, e);
+        }
+    }
+
+    private static final class Tick {
+
+        private static final String SNAPSHOT = "GAME_UPDATE";
+
+        private final Consumer<List<OptimizedGameEvent>> publisher;
+        private final List<OptimizedGameEvent> events = new ArrayList<>();
+
+        private Tick(Consumer<List<OptimizedGameEvent>> publisher) {
+            this.publisher = publisher;
+        }
+
+        private void add(OptimizedGameEvent event) {
+            if (SNAPSHOT.equals(event.getEventType())) {
+                // A newer snapshot supersedes the older one
+                events.removeIf(queued -> SNAPSHOT.equals(queued.getEventType()));
+            }
+            events.add(event);
+        }
+    }
+}
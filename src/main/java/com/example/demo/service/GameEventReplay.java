@@ -0,0 +1,251 @@
+package com.example.demo.service;
+
+import com.example.demo.config.StompDiagnostics;
+import com.example.demo.config.StompMessageConverter;
+import com.example.demo.dto.GameResponse;
+import com.example.demo.dto.OptimizedEventData;
+import com.example.demo.dto.OptimizedGameEvent;
+import com.example.demo.engine.GameState;
+import com.example.demo.engine.GameStateStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets a reconnecting client catch up on the game topic instead of
+ * refetching the whole game.
+ *
+ * <p>The last {@code uno.replay.capacity} frames broadcast to each game are
+ * kept encoded in a ring. A client that subscribes to
+ * {@code /topic/game/{code}} with a {@code last-seq} header gets every frame
+ * after that sequence number sent to its new subscription. When the gap
+ * reaches past the ring, because frames have left it or were broadcast
+ * before this node started, a single RESYNC frame with a snapshot of the
+ * game takes the place of the missing ones, followed by the frames the ring
+ * holds after it.
+ *
+ * <p>A game's ring is dropped once nothing has been broadcast to it for
+ * {@code uno.engine.idle-eviction-minutes}; resuming it then gets a
+ * RESYNC.
+ *
+ * <p>Replay starts once the broker has registered the subscription, so a
+ * frame is either replayed or delivered live, sometimes both. Clients drop
+ * frames whose {@code seq} they have already applied.
+ */
+@Component
+public class GameEventReplay implements ExecutorChannelInterceptor {
+
+    public static final String LAST_SEQ_HEADER = "last-seq";
+
+    private static final Logger log = LoggerFactory.getLogger(GameEventReplay.class);
+
+    private static final String TOPIC_PREFIX = "/topic/game/";
+
+    private final GameStateStore gameStateStore;
+    private final StompMessageConverter stompMessageConverter;
+    private final StompDiagnostics diagnostics;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MessageChannel clientOutboundChannel;
+
+    private final ConcurrentMap<String, Ring> rings = new ConcurrentHashMap<>();
+
+    @Value("${uno.replay.capacity:256}")
+    private int capacity = 256;
+
+    @Value("${uno.engine.idle-eviction-minutes:30}")
+    private long idleMinutes = 30;
+
+    public GameEventReplay(GameStateStore gameStateStore, StompMessageConverter stompMessageConverter,
+            StompDiagnostics diagnostics, PlatformTransactionManager transactionManager,
+            @Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel) {
+        this.gameStateStore = gameStateStore;
+        this.stompMessageConverter = stompMessageConverter;
+        this.diagnostics = diagnostics;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.clientOutboundChannel = clientOutboundChannel;
+    }
+
+    /**
+     * Remembers a frame broadcast to a game, holding the events
+     * {@code firstSeq} to {@code seq}. Frames must be appended in sequence
+     * order.
+     */
+    public void append(String gameCode, int firstSeq, int seq, byte[] payload) {
+        Ring ring = rings.get(gameCode);
+        if (ring == null) {
+            // A new game here; rings of games gone quiet are dropped on the way
+            pruneIdle();
+            ring = rings.computeIfAbsent(gameCode, code -> new Ring(capacity, firstSeq - 1));
+        }
+        synchronized (ring) {
+            ring.add(seq, payload);
+        }
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+            Exception ex) {
+        if (ex != null || !(handler instanceof AbstractBrokerMessageHandler)
+                || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.SUBSCRIBE) {
+            return;
+        }
+        SimpMessageHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, SimpMessageHeaderAccessor.class);
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (accessor == null || destination == null || !destination.startsWith(TOPIC_PREFIX)) {
+            return;
+        }
+        String lastSeq = accessor.getFirstNativeHeader(LAST_SEQ_HEADER);
+        if (lastSeq == null) {
+            return;
+        }
+        try {
+            replay(accessor.getSessionId(), accessor.getSubscriptionId(), destination,
+                    destination.substring(TOPIC_PREFIX.length()), Integer.parseInt(lastSeq.trim()));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring {} header '{}' from session {}", LAST_SEQ_HEADER, lastSeq, accessor.getSessionId());
+        } catch (RuntimeException e) {
+            log.error("Replay of {} to session {} failed", destination, accessor.getSessionId(), e);
+        }
+    }
+
+    /**
+     * Sends every frame of {@code gameCode} after {@code lastSeq} to one
+     * subscription. Returns the number of frames sent.
+     */
+    int replay(String sessionId, String subscriptionId, String destination, String gameCode, int lastSeq) {
+        Ring ring = rings.get(gameCode);
+        List<Frame> buffered;
+        int floor;
+        if (ring != null) {
+            synchronized (ring) {
+                buffered = ring.after(lastSeq);
+                floor = ring.floor;
+            }
+        } else {
+            buffered = new ArrayList<>();
+            floor = Integer.MAX_VALUE;
+        }
+
+        List<Frame> frames = new ArrayList<>();
+        boolean resynced = false;
+        if (lastSeq < floor) {
+            // The gap reaches past the ring, so a snapshot stands in for it
+            Frame resync = resync(gameCode);
+            if (resync.seq() > lastSeq) {
+                frames.add(resync);
+                resynced = true;
+            }
+            buffered.removeIf(frame -> frame.seq() <= resync.seq());
+        }
+        frames.addAll(buffered);
+
+        for (Frame frame : frames) {
+            clientOutboundChannel.send(replayMessage(sessionId, subscriptionId, destination, frame.payload()));
+        }
+
+        if (diagnostics.enabledFor(sessionId, destination)) {
+            diagnostics.log("Replayed {} frames of {} after seq {} to session {} (resync: {})",
+                    frames.size(), destination, lastSeq, sessionId, resynced);
+        }
+        return frames.size();
+    }
+
+    private void pruneIdle() {
+        long idleNanos = TimeUnit.MINUTES.toNanos(idleMinutes);
+        long now = System.nanoTime();
+        rings.values().removeIf(ring -> now - ring.lastAppendNanos > idleNanos);
+    }
+
+    /**
+     * A RESYNC frame with the game as it is now, without hands, under the
+     * sequence number of the last event it reflects.
+     */
+    private Frame resync(String gameCode) {
+        GameState state = gameStateStore.find(gameCode)
+                .orElseGet(() -> readOnlyTransaction.execute(tx -> gameStateStore.get(gameCode)));
+        OptimizedGameEvent event;
+        synchronized (state) {
+            event = OptimizedGameEvent.create("RESYNC", gameCode, null, null,
+                    new OptimizedEventData.Resync(GameResponse.fromState(state, null)));
+            event.setSeq(state.lastSequence());
+        }
+        return new Frame(event.getSeq(), stompMessageConverter.encode(event));
+    }
+
+    private static Message<byte[]> replayMessage(String sessionId, String subscriptionId, String destination,
+            byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        accessor.setContentType(StompMessageConverter.JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+
+    private record Frame(int seq, byte[] payload) {
+    }
+
+    /**
+     * Fixed-size ring of the latest frames of one game, each under the last
+     * sequence number it holds. Sequence numbers at or below {@code floor}
+     * are no longer (or never were) held.
+     */
+    private static final class Ring {
+
+        private final Frame[] frames;
+        private int start;
+        private int size;
+        private int floor;
+        private volatile long lastAppendNanos = System.nanoTime();
+
+        private Ring(int capacity, int floor) {
+            this.frames = new Frame[capacity];
+            this.floor = floor;
+        }
+
+        private void add(int seq, byte[] payload) {
+            lastAppendNanos = System.nanoTime();
+            if (size == frames.length) {
+                floor = frames[start].seq();
+                frames[start] = new Frame(seq, payload);
+                start = (start + 1) % frames.length;
+            } else {
+                frames[(start + size) % frames.length] = new Frame(seq, payload);
+                size++;
+            }
+        }
+
+        private List<Frame> after(int seq) {
+            List<Frame> result = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                Frame frame = frames[(start + i) % frames.length];
+                if (frame.seq() > seq) {
+                    result.add(frame);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.demo.service;
+
+import com.example.demo.config.StompDiagnostics;
+import com.example.demo.config.StompMessageConverter;
+import com.example.demo.dto.LobbyGameSummary;
+import com.example.demo.dto.OptimizedEventData;
+import com.example.demo.dto.OptimizedGameEvent;
+import com.example.demo.engine.LobbyIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes the lobby to clients subscribed to {@code /topic/lobby}, so they
+ * need not poll {@code GET /api/games}.
+ *
+ * <p>A new subscription gets a LOBBY_SNAPSHOT of every joinable game once the
+ * broker has registered it. After that, every {@code uno.lobby.diff-ms} the
+ * games that changed in {@link LobbyIndex} meanwhile go out to all
+ * subscribers as one LOBBY_DIFF of added, updated and removed games, however
+ * many joins the window saw. A game created and gone within one window is
+ * not sent at all.
+ *
+ * <p>Both frames carry the index version they reflect at least. A diff can
+ * reach a new subscriber after its snapshot while being older than it;
+ * clients drop diffs whose version is not above the snapshot's. A window of
+ * 0 turns diffs off.
+ *
+ * <p>Single node only: the index and its version are this node's, so with
+ * {@code uno.broker.mode=relay}, where every node would publish to the same
+ * shared topic, nothing is pushed and clients poll {@code GET /api/games}.
+ */
+@Component
+public class LobbyBroadcaster implements ExecutorChannelInterceptor {
+
+    public static final String DESTINATION = "/topic/lobby";
+
+    private static final Logger log = LoggerFactory.getLogger(LobbyBroadcaster.class);
+
+    private final LobbyIndex lobbyIndex;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final StompMessageConverter stompMessageConverter;
+    private final StompDiagnostics diagnostics;
+    private final MessageChannel clientOutboundChannel;
+
+    @Value("${uno.lobby.diff-ms:200}")
+    private long diffMs = 200;
+
+    @Value("${uno.broker.mode:simple}")
+    private String brokerMode = "simple";
+
+    // Games the subscribers were last told are listed; diff thread only
+    private final Set<String> announced = new HashSet<>();
+    private ScheduledExecutorService executor;
+
+    // Both lazy: the broker configuration that builds them registers this interceptor
+    public LobbyBroadcaster(LobbyIndex lobbyIndex, @Lazy SimpMessagingTemplate messagingTemplate,
+            StompMessageConverter stompMessageConverter, StompDiagnostics diagnostics,
+            @Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel) {
+        this.lobbyIndex = lobbyIndex;
+        this.messagingTemplate = messagingTemplate;
+        this.stompMessageConverter = stompMessageConverter;
+        this.diagnostics = diagnostics;
+        this.clientOutboundChannel = clientOutboundChannel;
+    }
+
+    @PostConstruct
+    void start() {
+        if (isRelay()) {
+            log.info("Lobby push to {} is off with the broker relay", DESTINATION);
+            return;
+        }
+        if (diffMs <= 0) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "lobby-diff");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::publishDiff, diffMs, diffMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+            Exception ex) {
+        if (ex != null || isRelay() || !(handler instanceof AbstractBrokerMessageHandler)
+                || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.SUBSCRIBE
+                || !DESTINATION.equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+            return;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders());
+        try {
+            sendSnapshot(sessionId, subscriptionId);
+        } catch (RuntimeException e) {
+            log.error("Lobby snapshot to session {} failed", sessionId, e);
+        }
+    }
+
+    private boolean isRelay() {
+        return "relay".equalsIgnoreCase(brokerMode);
+    }
+
+    private void sendSnapshot(String sessionId, String subscriptionId) {
+        // Read before the games, so the snapshot holds at least this version
+        long version = lobbyIndex.version();
+        List<LobbyGameSummary> games = lobbyIndex.availableGames();
+        OptimizedGameEvent event = OptimizedGameEvent.create("LOBBY_SNAPSHOT", null, null, null,
+                new OptimizedEventData.LobbySnapshot(version, games));
+        byte[] payload = stompMessageConverter.encode(event);
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(DESTINATION);
+        accessor.setContentType(StompMessageConverter.JSON);
+        accessor.setLeaveMutable(true);
+        clientOutboundChannel.send(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+
+        if (diagnostics.enabledFor(sessionId, DESTINATION)) {
+            diagnostics.log("Sent lobby snapshot v{} ({} games, {} bytes) to session {}", version, games.size(),
+                    payload.length, sessionId);
+        }
+    }
+
+    /**
+     * Sends the games changed since the last call, if any, as one frame.
+     */
+    synchronized void publishDiff() {
+        Set<String> changed = Set.of();
+        List<LobbyGameSummary> added = new ArrayList<>();
+        List<LobbyGameSummary> updated = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        try {
+            changed = lobbyIndex.drainChanged();
+            if (changed.isEmpty()) {
+                return;
+            }
+            long version = lobbyIndex.version();
+
+            for (String gameCode : changed) {
+                Optional<LobbyGameSummary> game = lobbyIndex.find(gameCode);
+                if (game.isPresent()) {
+                    (announced.add(gameCode) ? added : updated).add(game.get());
+                } else if (announced.remove(gameCode)) {
+                    removed.add(gameCode);
+                }
+            }
+            if (added.isEmpty() && updated.isEmpty() && removed.isEmpty()) {
+                return;
+            }
+
+            OptimizedGameEvent event = OptimizedGameEvent.create("LOBBY_DIFF", null, null, null,
+                    new OptimizedEventData.LobbyDiff(version, added, updated, removed));
+            byte[] payload = stompMessageConverter.encode(event);
+            if (diagnostics.enabledFor(null, DESTINATION)) {
+                diagnostics.log("Broadcasting lobby diff v{}: {} added, {} updated, {} removed, {} bytes", version,
+                        added.size(), updated.size(), removed.size(), payload.length);
+            }
+            messagingTemplate.send(DESTINATION, OptimizedWebSocketService.encodedMessage(event.getEventType(), payload));
+        } catch (RuntimeException e) {
+            // Keeps the schedule alive; subscribers were told nothing, so
+            // the same games go out again with the next diff
+            added.forEach(game -> announced.remove(game.getGameCode()));
+            announced.addAll(removed);
+            lobbyIndex.requeue(changed);
+            log.error("Lobby diff of {} games failed, retrying with the next one", changed.size(), e);
+        }
+    }
+}
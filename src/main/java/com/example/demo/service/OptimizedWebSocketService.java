@@ -1,15 +1,32 @@
 package com.example.demo.service;
 
+import com.example.demo.config.SessionOutboundQueues;
+import com.example.demo.config.StompDiagnostics;
+import com.example.demo.config.StompMessageConverter;
+import com.example.demo.config.WireFormatNegotiator;
 import com.example.demo.dto.OptimizedGameEvent;
 import com.example.demo.dto.OptimizedEventData;
 import com.example.demo.dto.GameResponse;
 import com.example.demo.dto.GamePlayerDto;
 import com.example.demo.dto.CardDto;
+import com.example.demo.engine.GameState;
+import com.example.demo.engine.GameStateFlusher;
+import com.example.demo.engine.GameStateStore;
+import com.example.demo.engine.HandChange;
+import com.example.demo.entity.Card;
 import com.example.demo.enums.GameDirection;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Optimized WebSocket service that sends only changed data instead of entire
  * game state
@@ -18,7 +35,15 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class OptimizedWebSocketService {
 
+    private static final Logger log = LoggerFactory.getLogger(OptimizedWebSocketService.class);
+
     private final SimpMessagingTemplate messagingTemplate;
+    private final StompDiagnostics diagnostics;
+    private final StompMessageConverter stompMessageConverter;
+    private final GameStateStore gameStateStore;
+    private final GameStateFlusher gameStateFlusher;
+    private final GameEventReplay gameEventReplay;
+    private final GameBroadcastCoalescer gameBroadcastCoalescer;
 
     public void broadcastPlayerJoined(String gameCode, Long playerId, String playerName,
             Integer playerOrder, Integer totalPlayers) {
@@ -171,6 +196,43 @@ public class OptimizedWebSocketService {
         broadcastEvent(gameCode, event);
     }
 
+    /**
+     * Tells the game topic to drop what it holds of the game and take
+     * {@code game}, the view without hands, instead.
+     */
+    public void broadcastResync(String gameCode, GameResponse game) {
+        OptimizedGameEvent event = OptimizedGameEvent.create(
+                "RESYNC", gameCode, null, null, new OptimizedEventData.Resync(game));
+
+        broadcastEvent(gameCode, event);
+    }
+
+    /**
+     * Sends one player their own view of the game, hand included, after a
+     * RESYNC.
+     */
+    public void sendResync(String gameCode, Long playerId, GameResponse game) {
+        sendPersonalMessage(gameCode, playerId, "RESYNC", new OptimizedEventData.Resync(game));
+    }
+
+    /**
+     * Tells a player which cards entered and left their hand, so their client
+     * can keep the hand without fetching the game after every move.
+     */
+    public void sendHandDelta(String gameCode, HandChange change) {
+        int firstAdded = change.handSize() - change.added().size();
+        List<CardDto> added = new ArrayList<>(change.added().size());
+        for (int i = 0; i < change.added().size(); i++) {
+            added.add(CardDto.inHand(change.added().get(i), firstAdded + i));
+        }
+        OptimizedEventData.HandDelta eventData = new OptimizedEventData.HandDelta(
+                added,
+                change.removed().stream().map(Card::getId).toList(),
+                change.handSize());
+
+        sendPersonalMessage(gameCode, change.playerId(), "HAND_DELTA", eventData);
+    }
+
     public void sendPersonalMessage(String gameCode, Long playerId, String eventType, Object data) {
         OptimizedGameEvent event = OptimizedGameEvent.create(
                 eventType, gameCode, playerId, null, data);
@@ -180,20 +242,56 @@ public class OptimizedWebSocketService {
     }
 
     private void broadcastEvent(String gameCode, OptimizedGameEvent event) {
-        try {
-            System.out.println("🔔 Broadcasting optimized WebSocket message:");
-            System.out.println("   Topic: /topic/game/" + gameCode);
-            System.out.println("   Event Type: " + event.getEventType());
-            System.out.println("   Player: " + event.getPlayerName() + " (ID: " + event.getPlayerId() + ")");
-            System.out.println("   Data Size: ~" + estimateDataSize(event) + " bytes");
+        GameState state = gameStateStore.find(gameCode).orElse(null);
+        if (state == null) {
+            // Not resident any more, so there is no sequence to stamp
+            gameBroadcastCoalescer.submit(gameCode, event, events -> publish(gameCode, events));
+            return;
+        }
 
-            messagingTemplate.convertAndSend("/topic/game/" + gameCode, event);
+        // Numbered and queued under the game's monitor, so events queue up in
+        // sequence order and frames leave in that order
+        synchronized (state) {
+            event.setSeq(state.nextSequence());
+            gameBroadcastCoalescer.submit(gameCode, event, events -> publish(gameCode, events));
+        }
+        gameStateFlusher.markDirty(state);
+    }
 
-            System.out.println("✅ Optimized WebSocket message sent successfully");
+    /**
+     * Sends the events of one tick as a single frame: the event itself when
+     * there is one, otherwise a BATCH wrapping them all that carries the
+     * sequence number of the last.
+     */
+    private void publish(String gameCode, List<OptimizedGameEvent> events) {
+        String destination = "/topic/game/" + gameCode;
+        OptimizedGameEvent frame = events.get(0);
+        if (events.size() > 1) {
+            frame = OptimizedGameEvent.create("BATCH", gameCode, null, null, new OptimizedEventData.Batch(events));
+            frame.setSeq(events.get(events.size() - 1).getSeq());
+        }
+
+        try {
+            // Serialized once; the broker hands the same buffer to every subscriber
+            byte[] payload = stompMessageConverter.encode(frame);
+
+            if (diagnostics.enabledFor(null, destination)) {
+                diagnostics.log("Broadcasting {} #{} ({} events) to {}, player {} ({}), {} bytes",
+                        frame.getEventType(), frame.getSeq(), events.size(), destination, frame.getPlayerName(),
+                        frame.getPlayerId(), payload.length);
+            }
+
+            // A frame is remembered before it is sent, so a client resuming
+            // meanwhile gets it live, replayed or both
+            if (frame.getSeq() != null) {
+                Integer firstSeq = events.get(0).getSeq();
+                gameEventReplay.append(gameCode, firstSeq != null ? firstSeq : frame.getSeq(), frame.getSeq(),
+                        payload);
+            }
+            messagingTemplate.send(destination, encodedMessage(frame.getEventType(), payload));
 
         } catch (Exception e) {
-            System.err.println("❌ Error broadcasting optimized WebSocket message: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error broadcasting {} to {}", frame.getEventType(), destination, e);
         }
     }
 
@@ -222,8 +320,14 @@ public class OptimizedWebSocketService {
                 .orElse(null);
     }
 
-    private int estimateDataSize(OptimizedGameEvent event) {
-        // Rough estimation for logging purposes
-        return event.toString().length();
+    static Message<byte[]> encodedMessage(String eventType, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setContentType(StompMessageConverter.JSON);
+        // Lets a slow session's queue replace a waiting frame of the same type
+        accessor.setNativeHeader(SessionOutboundQueues.EVENT_TYPE_HEADER, eventType);
+        // Transcoded once for all CBOR subscribers of the broadcast
+        accessor.setHeader(WireFormatNegotiator.SHARED_CBOR, new WireFormatNegotiator.SharedCbor());
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
     }
 }
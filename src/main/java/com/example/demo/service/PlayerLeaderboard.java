@@ -0,0 +1,312 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.LeaderboardEntry;
+import com.example.demo.dto.PlayerResponse;
+import com.example.demo.entity.Player;
+import com.example.demo.repository.PlayerRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * Every player ordered by coins, richest first and by id among equals, held
+ * in memory so the leaderboard is read without sorting the players table.
+ * Filled from the database once at startup and kept up to date by
+ * {@link PlayerService}.
+ *
+ * <p>The order lives in a treap whose nodes count their subtree, so finding a
+ * player's rank, or the player at a rank, takes O(log n); a page of k players
+ * takes O(log n + k). Ranks are positions in that order, starting at 1, so
+ * players with equal coins get consecutive ranks.
+ *
+ * <p>Changes take effect right away. Should the surrounding transaction roll
+ * back, the player is read back from the committed rows.
+ */
+@Component
+@RequiredArgsConstructor
+public class PlayerLeaderboard {
+
+    /** Page size when none or a larger one is asked for */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(PlayerLeaderboard.class);
+
+    private static final Comparator<PlayerResponse> RICHEST_FIRST = Comparator
+        .comparing(PlayerResponse::getCoins, Comparator.reverseOrder())
+        .thenComparing(PlayerResponse::getId);
+
+    private final PlayerRepository playerRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    // Both guarded by this
+    private final Map<Long, PlayerResponse> players = new HashMap<>();
+    private Node root;
+    private final SplittableRandom priorities = new SplittableRandom();
+
+    private TransactionTemplate reloadTemplate;
+
+    @PostConstruct
+    void init() {
+        // Rollback handlers read the committed rows, outside the finished transaction
+        reloadTemplate = new TransactionTemplate(transactionManager);
+        reloadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        reloadTemplate.setReadOnly(true);
+
+        Gauge.builder("uno.leaderboard.players", this, PlayerLeaderboard::size)
+            .description("Players on the in-memory leaderboard")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Player> all = reloadTemplate.execute(status -> playerRepository.findAll());
+        synchronized (this) {
+            // Anything updated meanwhile is newer than the rows
+            all.stream()
+                .filter(player -> !players.containsKey(player.getId()))
+                .forEach(player -> insert(PlayerResponse.fromEntity(player)));
+        }
+        log.info("Leaderboard loaded {} players", all.size());
+    }
+
+    public synchronized int size() {
+        return players.size();
+    }
+
+    /**
+     * Adds the player, or moves them to where their coins now put them. Call
+     * after the row was saved.
+     */
+    public void put(PlayerResponse player) {
+        synchronized (this) {
+            removeFromTree(player.getId());
+            insert(player);
+        }
+        refreshOnRollback(player.getId());
+    }
+
+    public void remove(Long playerId) {
+        synchronized (this) {
+            removeFromTree(playerId);
+        }
+        refreshOnRollback(playerId);
+    }
+
+    /**
+     * Up to {@code limit} players from rank {@code offset + 1} on.
+     */
+    public synchronized List<PlayerResponse> page(int offset, int limit) {
+        List<PlayerResponse> page = new ArrayList<>();
+        collect(root, Math.max(offset, 0), pageSize(limit), page);
+        return page;
+    }
+
+    /**
+     * Like {@link #page(int, int)}, over the players with at least
+     * {@code minCoins} coins only.
+     */
+    public synchronized List<PlayerResponse> pageWithMinCoins(int minCoins, int offset, int limit) {
+        // Everyone richer than a poorer-than-anyone probe at minCoins - 1 qualifies
+        int qualifying = countBefore(new PlayerResponse(Long.MIN_VALUE, null, minCoins - 1));
+        int from = Math.max(offset, 0);
+        List<PlayerResponse> page = new ArrayList<>();
+        collect(root, from, Math.min(pageSize(limit), Math.max(qualifying - from, 0)), page);
+        return page;
+    }
+
+    public synchronized Optional<LeaderboardEntry> rankOf(Long playerId) {
+        PlayerResponse player = players.get(playerId);
+        if (player == null) {
+            return Optional.empty();
+        }
+        return Optional.of(LeaderboardEntry.of(countBefore(player) + 1, player));
+    }
+
+    /**
+     * The player with up to {@code radius} players ranked right above and
+     * below them, empty for an unknown player.
+     */
+    public synchronized List<LeaderboardEntry> around(Long playerId, int radius) {
+        PlayerResponse player = players.get(playerId);
+        if (player == null) {
+            return List.of();
+        }
+        int span = Math.min(Math.max(radius, 0), MAX_PAGE_SIZE / 2);
+        int index = countBefore(player);
+        int from = Math.max(index - span, 0);
+        List<PlayerResponse> window = new ArrayList<>();
+        collect(root, from, index - from + span + 1, window);
+
+        List<LeaderboardEntry> entries = new ArrayList<>(window.size());
+        for (int i = 0; i < window.size(); i++) {
+            entries.add(LeaderboardEntry.of(from + i + 1, window.get(i)));
+        }
+        return entries;
+    }
+
+    private static int pageSize(int limit) {
+        return limit < 1 || limit > MAX_PAGE_SIZE ? MAX_PAGE_SIZE : limit;
+    }
+
+    private void refreshOnRollback(Long playerId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    Optional<Player> committed = reloadTemplate.execute(tx -> playerRepository.findById(playerId));
+                    synchronized (PlayerLeaderboard.this) {
+                        removeFromTree(playerId);
+                        committed.ifPresent(player -> insert(PlayerResponse.fromEntity(player)));
+                    }
+                }
+            }
+        });
+    }
+
+    // ------------------------------------------------------------------
+    // Treap, ordered by RICHEST_FIRST; callers hold the monitor
+    // ------------------------------------------------------------------
+
+    private static final class Node {
+
+        private final PlayerResponse player;
+        private final int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(PlayerResponse player, int priority) {
+            this.player = player;
+            this.priority = priority;
+        }
+    }
+
+    private void insert(PlayerResponse player) {
+        players.put(player.getId(), player);
+        Node[] parts = split(root, player);
+        root = merge(merge(parts[0], new Node(player, priorities.nextInt())), parts[1]);
+    }
+
+    private void removeFromTree(Long playerId) {
+        PlayerResponse current = players.remove(playerId);
+        if (current == null) {
+            return;
+        }
+        Node[] parts = split(root, current);
+        // The player is the first node of the right part
+        root = merge(parts[0], removeFirst(parts[1]));
+    }
+
+    /**
+     * Number of players ordered before {@code player}.
+     */
+    private int countBefore(PlayerResponse player) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (RICHEST_FIRST.compare(node.player, player) < 0) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Appends up to {@code limit} players of the subtree, skipping the first
+     * {@code skip}, in order.
+     */
+    private static void collect(Node node, int skip, int limit, List<PlayerResponse> out) {
+        if (node == null || out.size() >= limit || skip >= node.size) {
+            return;
+        }
+        int leftSize = size(node.left);
+        if (skip < leftSize) {
+            collect(node.left, skip, limit, out);
+        }
+        if (skip <= leftSize && out.size() < limit) {
+            out.add(node.player);
+        }
+        collect(node.right, Math.max(skip - leftSize - 1, 0), limit, out);
+    }
+
+    /**
+     * Splits into the nodes ordered before {@code player} and the rest.
+     */
+    private static Node[] split(Node node, PlayerResponse player) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (RICHEST_FIRST.compare(node.player, player) < 0) {
+            Node[] parts = split(node.right, player);
+            node.right = parts[0];
+            update(node);
+            parts[0] = node;
+            return parts;
+        }
+        Node[] parts = split(node.left, player);
+        node.left = parts[1];
+        update(node);
+        parts[1] = node;
+        return parts;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node removeFirst(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeFirst(node.left);
+        update(node);
+        return node;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+}
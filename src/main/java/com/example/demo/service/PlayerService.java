@@ -1,22 +1,30 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.LeaderboardEntry;
 import com.example.demo.dto.PlayerRequest;
 import com.example.demo.dto.PlayerResponse;
 import com.example.demo.entity.Player;
 import com.example.demo.repository.PlayerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+/**
+ * Player accounts. Every write also goes to {@link PlayerLeaderboard}, which
+ * answers the leaderboard queries.
+ */
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class PlayerService {
     
     private final PlayerRepository playerRepository;
+    private final PlayerLeaderboard playerLeaderboard;
     
     public PlayerResponse createPlayer(PlayerRequest request) {
         if (playerRepository.existsByPlayerName(request.getPlayerName())) {
@@ -25,7 +33,7 @@ public class PlayerService {
         
         Player player = new Player(request.getPlayerName(), request.getCoins());
         Player savedPlayer = playerRepository.save(player);
-        return PlayerResponse.fromEntity(savedPlayer);
+        return ranked(savedPlayer);
     }
     
     @Transactional(readOnly = true)
@@ -64,7 +72,7 @@ public class PlayerService {
         player.setCoins(request.getCoins());
         
         Player updatedPlayer = playerRepository.save(player);
-        return PlayerResponse.fromEntity(updatedPlayer);
+        return ranked(updatedPlayer);
     }
     
     public PlayerResponse updatePlayerCoins(Long id, Integer coins) {
@@ -73,7 +81,7 @@ public class PlayerService {
         
         player.setCoins(coins);
         Player updatedPlayer = playerRepository.save(player);
-        return PlayerResponse.fromEntity(updatedPlayer);
+        return ranked(updatedPlayer);
     }
     
     public PlayerResponse addCoinsToPlayer(Long id, Integer coinsToAdd) {
@@ -82,7 +90,7 @@ public class PlayerService {
         
         player.setCoins(player.getCoins() + coinsToAdd);
         Player updatedPlayer = playerRepository.save(player);
-        return PlayerResponse.fromEntity(updatedPlayer);
+        return ranked(updatedPlayer);
     }
     
     public void deletePlayer(Long id) {
@@ -90,21 +98,35 @@ public class PlayerService {
             throw new RuntimeException("Player not found with id: " + id);
         }
         playerRepository.deleteById(id);
+        playerLeaderboard.remove(id);
     }
     
-    @Transactional(readOnly = true)
-    public List<PlayerResponse> getPlayersOrderByCoins() {
-        return playerRepository.findAllOrderByCoinsDesc()
-                .stream()
-                .map(PlayerResponse::fromEntity)
-                .collect(Collectors.toList());
+    /**
+     * Served from the leaderboard; needs no transaction.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PlayerResponse> getPlayersOrderByCoins(int offset, int limit) {
+        return playerLeaderboard.page(offset, limit);
     }
     
-    @Transactional(readOnly = true)
-    public List<PlayerResponse> getPlayersWithMinCoins(Integer minCoins) {
-        return playerRepository.findPlayersWithMinCoins(minCoins)
-                .stream()
-                .map(PlayerResponse::fromEntity)
-                .collect(Collectors.toList());
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PlayerResponse> getPlayersWithMinCoins(Integer minCoins, int offset, int limit) {
+        return playerLeaderboard.pageWithMinCoins(minCoins, offset, limit);
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<LeaderboardEntry> getPlayerRank(Long id) {
+        return playerLeaderboard.rankOf(id);
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<LeaderboardEntry> getPlayersAround(Long id, int radius) {
+        return playerLeaderboard.around(id, radius);
+    }
+    
+    private PlayerResponse ranked(Player player) {
+        PlayerResponse response = PlayerResponse.fromEntity(player);
+        playerLeaderboard.put(response);
+        return response;
     }
 }
@@ -11,6 +11,14 @@ import java.util.List;
 public class UnoGameRules {
     
     public static boolean canPlayCard(Card cardToPlay, Card topCard) {
+        return topCard != null && canPlayCard(cardToPlay, topCard, topCard.getColor());
+    }
+    
+    /**
+     * Same as {@link #canPlayCard(Card, Card)} but matches against
+     * {@code activeColor}, the color chosen for a wild top card.
+     */
+    public static boolean canPlayCard(Card cardToPlay, Card topCard, CardColor activeColor) {
         if (cardToPlay == null || topCard == null) {
             return false;
         }
@@ -22,7 +30,7 @@ public class UnoGameRules {
         }
         
         // Can play if same color
-        if (cardToPlay.getColor() == topCard.getColor()) {
+        if (cardToPlay.getColor() == activeColor) {
             return true;
         }
         
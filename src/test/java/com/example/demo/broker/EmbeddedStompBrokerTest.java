@@ -0,0 +1,159 @@
+package com.example.demo.broker;
+
+import com.example.demo.service.OptimizedWebSocketService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the application in relay mode against the embedded broker and checks
+ * a broadcast travels app -> relay -> broker -> relay -> WebSocket client.
+ * Also logs the throughput and latency of that path.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "uno.broker.mode=relay",
+    "uno.broker.embedded=true",
+    "uno.broker.relay.port=0",
+    "uno.broadcast.tick-ms=0"
+})
+@ActiveProfiles("test")
+class EmbeddedStompBrokerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedStompBrokerTest.class);
+
+    private static final String GAME_CODE = "RELAY1";
+    private static final String DESTINATION = "/topic/game/" + GAME_CODE;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmbeddedStompBroker broker;
+
+    @Autowired
+    private OptimizedWebSocketService webSocketService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private WebSocketStompClient client;
+    private StompSession session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        client = new WebSocketStompClient(new StandardWebSocketClient());
+        session = client.connectAsync("ws://localhost:" + port + "/ws", new StompSessionHandlerAdapter() {
+        }).get(10, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.disconnect();
+        client.stop();
+    }
+
+    @Test
+    void broadcast_ShouldReachClientThroughBroker() throws Exception {
+        BlockingQueue<JsonNode> received = new LinkedBlockingQueue<>();
+        subscribe(body -> received.add(body));
+
+        webSocketService.broadcastUnoCalled(GAME_CODE, 7L, "Relay", 1);
+
+        JsonNode event = received.poll(10, TimeUnit.SECONDS);
+        assertNotNull(event, "broadcast did not arrive through the broker");
+        assertEquals("UNO_CALLED", event.get("eventType").asText());
+        assertEquals(7, event.get("playerId").asLong());
+        assertEquals(1, event.get("eventData").get("cardsRemaining").asInt());
+    }
+
+    @Test
+    void unsubscribe_ShouldRemoveSubscriptionFromBroker() throws Exception {
+        StompSession.Subscription subscription = subscribe(body -> {
+        });
+
+        subscription.unsubscribe();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (broker.subscriberCount(DESTINATION) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, broker.subscriberCount(DESTINATION));
+    }
+
+    @Test
+    void relay_Throughput() throws Exception {
+        int count = 1000;
+        long[] sentAt = new long[count];
+        long[] latencies = new long[count];
+        CountDownLatch done = new CountDownLatch(count);
+        subscribe(body -> {
+            int i = body.get("playerId").asInt();
+            latencies[i] = System.nanoTime() - sentAt[i];
+            done.countDown();
+        });
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            sentAt[i] = System.nanoTime();
+            webSocketService.broadcastUnoCalled(GAME_CODE, (long) i, "Relay", 1);
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS), "missing " + done.getCount() + " frames");
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        log.info("Relay: {} frames in {} ms ({} frames/s), latency p50 {} us, p99 {} us", count,
+                TimeUnit.NANOSECONDS.toMillis(elapsed), count * 1_000_000_000L / elapsed,
+                latencies[count / 2] / 1000, latencies[count * 99 / 100] / 1000);
+    }
+
+    private StompSession.Subscription subscribe(FrameConsumer consumer) throws InterruptedException {
+        StompSession.Subscription subscription = session.subscribe(DESTINATION, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                try {
+                    consumer.accept(objectMapper.readTree((byte[]) payload));
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+
+        // The relay forwards the SUBSCRIBE asynchronously
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (broker.subscriberCount(DESTINATION) == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, broker.subscriberCount(DESTINATION));
+        return subscription;
+    }
+
+    private interface FrameConsumer {
+        void accept(JsonNode body);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks which executors the client channels and session writers run on,
+ * with and without {@code spring.threads.virtual.enabled}.
+ */
+class ClientChannelExecutorTest {
+
+    @Nested
+    @SpringBootTest(properties = "uno.broadcast.tick-ms=0")
+    @ActiveProfiles("test")
+    class FixedPools extends Channels {
+
+        @Test
+        void channels_ShouldUseThreadPools() throws Exception {
+            assertInstanceOf(ThreadPoolTaskExecutor.class, clientInboundChannel.getExecutor());
+            assertEquals(8, ((ThreadPoolTaskExecutor) clientOutboundChannel.getExecutor()).getMaxPoolSize());
+            assertFalse(writerIsVirtual());
+        }
+    }
+
+    @Nested
+    @SpringBootTest(properties = {"uno.broadcast.tick-ms=0", "spring.threads.virtual.enabled=true"})
+    @ActiveProfiles("test")
+    class VirtualThreads extends Channels {
+
+        @Test
+        void channels_ShouldUseVirtualThreads() throws Exception {
+            assertInstanceOf(VirtualThreadTaskExecutor.class, clientInboundChannel.getExecutor());
+            assertInstanceOf(VirtualThreadTaskExecutor.class, clientOutboundChannel.getExecutor());
+            assertTrue(writerIsVirtual());
+        }
+    }
+
+    abstract static class Channels {
+
+        @Autowired
+        @Qualifier("clientInboundChannel")
+        ExecutorSubscribableChannel clientInboundChannel;
+
+        @Autowired
+        @Qualifier("clientOutboundChannel")
+        ExecutorSubscribableChannel clientOutboundChannel;
+
+        @Autowired
+        SessionOutboundQueues sessionOutboundQueues;
+
+        boolean writerIsVirtual() throws Exception {
+            CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+            sessionOutboundQueues.getWriters().execute(() -> virtual.complete(Thread.currentThread().isVirtual()));
+            return virtual.get(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SessionOutboundQueuesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SessionOutboundQueues queues = new SessionOutboundQueues(meterRegistry);
+
+    // Holds the first write until released, like a client that stopped reading
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch firstWriteStarted = new CountDownLatch(1);
+    private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+
+    private WebSocketSession raw;
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        queues.start();
+
+        raw = mock(WebSocketSession.class);
+        when(raw.getId()).thenReturn("slow-1");
+        doAnswer(invocation -> {
+            firstWriteStarted.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            written.add(((TextMessage) invocation.getArgument(0)).getPayload());
+            return null;
+        }).when(raw).sendMessage(any());
+
+        WebSocketHandler handler = mock(WebSocketHandler.class);
+        queues.decorate(handler).afterConnectionEstablished(raw);
+        ArgumentCaptor<WebSocketSession> queued = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(handler).afterConnectionEstablished(queued.capture());
+        session = queued.getValue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    void waitingGameUpdates_ShouldBeConflatedToLatest() throws Exception {
+        session.sendMessage(frame("/topic/game/A", "GAME_UPDATE", "1"));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+
+        session.sendMessage(frame("/topic/game/A", "GAME_UPDATE", "2"));
+        session.sendMessage(frame("/topic/game/A", "CARD_PLAYED", "3"));
+        session.sendMessage(frame("/topic/game/B", "GAME_UPDATE", "4"));
+        session.sendMessage(frame("/topic/game/A", "GAME_UPDATE", "5"));
+        assertEquals(3, queues.stats().get("slow-1").get("queued"));
+
+        release.countDown();
+        awaitWritten(4);
+
+        // 2 was replaced by 5, which moved behind the card played meanwhile
+        assertEquals(List.of("1", "3", "4", "5"), written.stream().map(SessionOutboundQueuesTest::body).toList());
+        assertEquals(1L, queues.stats().get("slow-1").get("conflated"));
+        assertEquals(1.0, meterRegistry.counter("uno.ws.outbound.conflated").count());
+    }
+
+    @Test
+    void criticalEvents_ShouldAllBeKept() throws Exception {
+        session.sendMessage(frame("/topic/game/A", "CARD_PLAYED", "1"));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+        session.sendMessage(frame("/topic/game/A", "CARD_PLAYED", "2"));
+        session.sendMessage(frame("/topic/game/A", "GAME_WON", "3"));
+        session.sendMessage(frame("/topic/game/A", "GAME_WON", "4"));
+
+        release.countDown();
+        awaitWritten(4);
+
+        assertEquals(List.of("1", "2", "3", "4"), written.stream().map(SessionOutboundQueuesTest::body).toList());
+    }
+
+    @Test
+    void tooManyQueuedFrames_ShouldCloseSession() throws Exception {
+        ReflectionTestUtils.setField(queues, "maxQueued", 2);
+        session.sendMessage(frame("/topic/game/A", "CARD_PLAYED", "1"));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+
+        session.sendMessage(frame("/topic/game/A", "CARD_PLAYED", "2"));
+        session.sendMessage(frame("/topic/game/A", "CARD_PLAYED", "3"));
+        verify(raw, never()).close(any());
+        session.sendMessage(frame("/topic/game/A", "CARD_PLAYED", "4"));
+
+        verify(raw).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1.0, meterRegistry.counter("uno.ws.outbound.slow.disconnects").count());
+        assertEquals(0, queues.stats().get("slow-1").get("queued"));
+    }
+
+    @Test
+    void writeRunningTooLong_ShouldCloseSession() throws Exception {
+        ReflectionTestUtils.setField(queues, "maxLagMs", 50L);
+        session.sendMessage(frame("/topic/game/A", "CARD_PLAYED", "1"));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+
+        Thread.sleep(100);
+        session.sendMessage(frame("/topic/game/A", "CARD_PLAYED", "2"));
+
+        verify(raw).close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    @Test
+    void close_ShouldWaitForQueuedFrames() throws Exception {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            events.add("close " + invocation.getArgument(0, CloseStatus.class).getCode());
+            return null;
+        }).when(raw).close(any());
+        session.sendMessage(frame("/topic/game/A", "CARD_PLAYED", "1"));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+
+        session.sendMessage(new TextMessage("ERROR\nmessage:bad frame\n\n\0"));
+        session.close(CloseStatus.PROTOCOL_ERROR);
+        session.sendMessage(frame("/topic/game/A", "CARD_PLAYED", "2"));
+        verify(raw, never()).close(any());
+
+        release.countDown();
+        awaitWritten(2);
+        verify(raw, timeout(5000)).close(CloseStatus.PROTOCOL_ERROR);
+        assertTrue(written.get(1).startsWith("ERROR\n"), written.get(1));
+        // Frames sent after the close are dropped
+        assertEquals(2, written.size());
+        assertEquals(List.of("close " + CloseStatus.PROTOCOL_ERROR.getCode()), events);
+    }
+
+    @Test
+    void conflationKey_ShouldReadBinaryFrames() {
+        byte[] frame = ("MESSAGE\ndestination:/topic/game/A\nevent-type:GAME_UPDATE\nx-wire-format:cbor\n\n¡\0")
+                .getBytes(StandardCharsets.ISO_8859_1);
+
+        assertEquals("/topic/game/A GAME_UPDATE", queues.conflationKey(new BinaryMessage(frame)));
+        assertNull(queues.conflationKey(frame("/topic/game/A", "GAME_WON", "1")));
+    }
+
+    private void awaitWritten(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (written.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, written.size());
+    }
+
+    private static WebSocketMessage<?> frame(String destination, String eventType, String body) {
+        return new TextMessage("MESSAGE\ndestination:" + destination + "\nevent-type:" + eventType
+                + "\nsubscription:sub-0\n\n" + body + "\0");
+    }
+
+    private static String body(String frame) {
+        return frame.substring(frame.indexOf("\n\n") + 2, frame.length() - 1);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StompDiagnosticsTest {
+
+    private final StompDiagnostics diagnostics = new StompDiagnostics();
+
+    @Test
+    void enabledFor_NothingSwitchedOn_ShouldBeFalse() {
+        assertFalse(diagnostics.enabledFor("session-1", "/topic/game/123456"));
+        assertFalse(diagnostics.enabled());
+    }
+
+    @Test
+    void enabledFor_Session_ShouldOnlyMatchThatSession() {
+        diagnostics.enableSession("session-1");
+
+        assertTrue(diagnostics.enabledFor("session-1", null));
+        assertFalse(diagnostics.enabledFor("session-2", null));
+        assertFalse(diagnostics.enabled());
+
+        diagnostics.disableSession("session-1");
+        assertFalse(diagnostics.enabledFor("session-1", null));
+    }
+
+    @Test
+    void enabledFor_Game_ShouldMatchTopicAndPersonalQueue() {
+        diagnostics.enableGame("123456");
+
+        assertTrue(diagnostics.enabledFor(null, "/topic/game/123456"));
+        assertTrue(diagnostics.enabledFor(null, "/queue/game/123456/player/7"));
+        assertFalse(diagnostics.enabledFor(null, "/topic/game/654321"));
+        assertFalse(diagnostics.enabledFor(null, "/app/game/play-card"));
+    }
+
+    @Test
+    void enabledFor_SampleRate_ShouldLogEveryNthFrame() {
+        diagnostics.setAll(true);
+        diagnostics.setSampleRate(4);
+
+        int logged = 0;
+        for (int i = 0; i < 100; i++) {
+            if (diagnostics.enabledFor("session-1", null)) {
+                logged++;
+            }
+        }
+
+        assertEquals(25, logged);
+    }
+
+    @Test
+    void reset_ShouldSwitchEverythingOff() {
+        diagnostics.setAll(true);
+        diagnostics.enableSession("session-1");
+        diagnostics.enableGame("123456");
+
+        diagnostics.reset();
+
+        assertFalse(diagnostics.enabledFor("session-1", "/topic/game/123456"));
+    }
+}
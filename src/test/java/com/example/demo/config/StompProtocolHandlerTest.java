@@ -0,0 +1,85 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StompProtocolHandlerTest {
+
+    private static final String JSON = "{\"eventType\":\"TEST\"}";
+
+    private final StompProtocolHandler handler = new StompProtocolHandler();
+    private final StompEncoder encoder = new StompEncoder();
+
+    @Test
+    void preSend_UnterminatedPayload_ShouldBeEncodedWithOneTerminator() {
+        Message<byte[]> message = message(JSON.getBytes(StandardCharsets.UTF_8));
+
+        Message<?> processed = handler.preSend(message, null);
+
+        assertSame(message, processed);
+        assertFrame(encode(processed));
+    }
+
+    @Test
+    void preSend_TerminatedPayload_ShouldDropTheNullAndKeepHeaders() {
+        Message<byte[]> message = message((JSON + "\0").getBytes(StandardCharsets.UTF_8));
+
+        Message<?> processed = handler.preSend(message, null);
+
+        String frame = assertFrame(encode(processed));
+        assertTrue(frame.contains("\nsubscription:sub-0\n"), frame);
+        assertTrue(frame.contains("\ndestination:/topic/game/TEST123\n"), frame);
+        assertEquals("session-1", StompHeaderAccessor.wrap(processed).getSessionId());
+    }
+
+    @Test
+    void convertToInternal_ShouldLeaveTerminationToFrameEncoder() {
+        StompMessageConverter converter = new StompMessageConverter(new StompDiagnostics());
+
+        Message<?> converted = converter.toMessage(Map.of("eventType", "TEST"), new MessageHeaders(null));
+
+        byte[] payload = (byte[]) converted.getPayload();
+        assertEquals(JSON, new String(payload, StandardCharsets.UTF_8));
+        // Encoded bodies are passed through as they are
+        assertSame(payload, converter.toMessage(payload, new MessageHeaders(null)).getPayload());
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] encode(Message<?> message) {
+        return encoder.encode((Message<byte[]>) message);
+    }
+
+    /**
+     * Checks that {@code bytes} is a single MESSAGE frame carrying
+     * {@link #JSON} under a matching content-length, and returns it.
+     */
+    private static String assertFrame(byte[] bytes) {
+        String frame = new String(bytes, StandardCharsets.UTF_8);
+        assertTrue(frame.startsWith("MESSAGE\n"), frame);
+        assertEquals(frame.length() - 1, frame.indexOf('\0'), "exactly one terminator, at the end");
+
+        int bodyStart = frame.indexOf("\n\n") + 2;
+        String body = frame.substring(bodyStart, frame.length() - 1);
+        assertEquals(JSON, body);
+        assertTrue(frame.contains("\ncontent-length:" + body.getBytes(StandardCharsets.UTF_8).length + "\n"), frame);
+        return frame;
+    }
+
+    private static Message<byte[]> message(byte[] payload) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        accessor.setDestination("/topic/game/TEST123");
+        accessor.setSessionId("session-1");
+        accessor.setSubscriptionId("sub-0");
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+}
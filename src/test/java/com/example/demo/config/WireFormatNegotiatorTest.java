@@ -0,0 +1,135 @@
+package com.example.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatNegotiatorTest {
+
+    private static final byte[] JSON = ("{\"eventType\":\"CARD_PLAYED\",\"gameCode\":\"123456\",\"playerId\":7,"
+            + "\"timestamp\":\"2025-01-01T12:00:00\",\"data\":{\"cardsRemaining\":0,\"nextPlayerName\":\"Bob\"}}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final StompMessageConverter converter = new StompMessageConverter(new StompDiagnostics());
+    private final WireFormatNegotiator negotiator = new WireFormatNegotiator(converter, new StompDiagnostics());
+
+    @Test
+    void toCbor_ShouldKeepContentAndShrinkBody() throws Exception {
+        byte[] cbor = converter.toCbor(JSON);
+
+        ObjectMapper json = new ObjectMapper();
+        ObjectMapper binary = new ObjectMapper(new CBORFactory());
+        assertEquals(json.readTree(JSON), binary.readTree(cbor));
+        assertTrue(cbor.length < JSON.length);
+    }
+
+    @Test
+    void connectHeader_ShouldSwitchWholeSessionToCbor() {
+        negotiator.preSend(frame(StompCommand.CONNECT, "session-1", null, "cbor", true), null);
+
+        Message<?> sent = negotiator.preSend(message("session-1", "sub-0", JSON), null);
+
+        assertEquals(WireFormat.CBOR, negotiator.formatOf("session-1", "sub-0"));
+        assertArrayEquals(converter.toCbor(JSON), (byte[]) sent.getPayload());
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(sent);
+        assertEquals(MimeTypeUtils.APPLICATION_OCTET_STREAM, headers.getContentType());
+        assertEquals("cbor", headers.getFirstNativeHeader(WireFormatNegotiator.HEADER));
+        assertEquals("/topic/game/123456", headers.getDestination());
+        // Other sessions keep the JSON buffer itself
+        assertSame(JSON, negotiator.preSend(message("session-2", "sub-0", JSON), null).getPayload());
+    }
+
+    @Test
+    void subscribeHeader_ShouldOverrideSessionFormat() {
+        negotiator.preSend(frame(StompCommand.CONNECT, "session-1", null, null, true), null);
+        negotiator.preSend(frame(StompCommand.SUBSCRIBE, "session-1", "sub-1", "cbor", true), null);
+
+        assertSame(JSON, negotiator.preSend(message("session-1", "sub-0", JSON), null).getPayload());
+        assertNotSame(JSON, negotiator.preSend(message("session-1", "sub-1", JSON), null).getPayload());
+
+        negotiator.preSend(frame(StompCommand.UNSUBSCRIBE, "session-1", "sub-1", null, true), null);
+        assertEquals(WireFormat.JSON, negotiator.formatOf("session-1", "sub-1"));
+    }
+
+    @Test
+    void textOnlyTransport_ShouldStayJson() {
+        negotiator.preSend(frame(StompCommand.CONNECT, "session-1", null, "cbor", false), null);
+
+        assertSame(JSON, negotiator.preSend(message("session-1", "sub-0", JSON), null).getPayload());
+    }
+
+    @Test
+    void fanOut_ShouldTranscodeSharedBufferOnce() {
+        for (int i = 0; i < 3; i++) {
+            negotiator.preSend(frame(StompCommand.CONNECT, "session-" + i, null, "cbor", true), null);
+        }
+
+        WireFormatNegotiator.SharedCbor shared = new WireFormatNegotiator.SharedCbor();
+        Object first = negotiator.preSend(message("session-0", "sub-0", JSON, shared), null).getPayload();
+        for (int i = 1; i < 3; i++) {
+            assertSame(first, negotiator.preSend(message("session-" + i, "sub-0", JSON, shared), null).getPayload());
+        }
+        // Another broadcast of the same bytes gets its own transcoding
+        Object other = negotiator.preSend(message("session-0", "sub-0", JSON,
+                new WireFormatNegotiator.SharedCbor()), null).getPayload();
+        assertNotSame(first, other);
+        assertArrayEquals((byte[]) first, (byte[]) other);
+    }
+
+    @Test
+    void disconnect_ShouldForgetSession() {
+        negotiator.preSend(frame(StompCommand.CONNECT, "session-1", null, "cbor", true), null);
+        negotiator.preSend(frame(StompCommand.DISCONNECT, "session-1", null, null, true), null);
+
+        assertEquals(WireFormat.JSON, negotiator.formatOf("session-1", "sub-0"));
+    }
+
+    private static Message<byte[]> frame(StompCommand command, String sessionId, String subscriptionId,
+            String wireFormat, boolean binaryTransport) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        if (command == StompCommand.SUBSCRIBE) {
+            accessor.setDestination("/topic/game/123456");
+        }
+        if (wireFormat != null) {
+            accessor.setNativeHeader(WireFormatNegotiator.HEADER, wireFormat);
+        }
+        Map<String, Object> attributes = new HashMap<>();
+        if (binaryTransport) {
+            attributes.put(WireFormatNegotiator.BINARY_TRANSPORT, Boolean.TRUE);
+        }
+        accessor.setSessionAttributes(attributes);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    // Broker fan-out copies carry plain simp headers plus those of the broadcast
+    private static Message<byte[]> message(String sessionId, String subscriptionId, byte[] payload) {
+        return message(sessionId, subscriptionId, payload, null);
+    }
+
+    private static Message<byte[]> message(String sessionId, String subscriptionId, byte[] payload,
+            WireFormatNegotiator.SharedCbor shared) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        if (shared != null) {
+            accessor.setHeader(WireFormatNegotiator.SHARED_CBOR, shared);
+        }
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination("/topic/game/123456");
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+}
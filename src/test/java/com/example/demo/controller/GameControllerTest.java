@@ -154,6 +154,40 @@ class GameControllerTest {
                 .andExpect(jsonPath("$[0].status", is("WAITING_FOR_PLAYERS")));
     }
 
+    @Test
+    void getLobbyPage_ShouldPageThroughMatchingGames() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            CreateGameRequest createRequest = new CreateGameRequest(testPlayer1.getId(), 3, 2);
+            mockMvc.perform(post("/api/games")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(createRequest)))
+                    .andExpect(status().isCreated());
+        }
+
+        String body = mockMvc.perform(get("/api/games/lobby")
+                .param("maxPlayers", "3")
+                .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.games", hasSize(2)))
+                .andExpect(jsonPath("$.games[0].freeSeats", is(2)))
+                .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/games/lobby")
+                .param("maxPlayers", "3")
+                .param("limit", "2")
+                .param("cursor", objectMapper.readTree(body).get("nextCursor").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.games", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    void getLobbyPage_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/games/lobby").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getPlayerGames_ShouldReturnPlayerActiveGames() throws Exception {
         // Create a game
@@ -0,0 +1,173 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.CreateGameRequest;
+import com.example.demo.dto.JoinGameRequest;
+import com.example.demo.engine.GameEventJournal;
+import com.example.demo.engine.GameStateFlusher;
+import com.example.demo.engine.GameStateStore;
+import com.example.demo.entity.Game;
+import com.example.demo.entity.Player;
+import com.example.demo.repository.*;
+import com.example.demo.service.GameService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Counts the statements an endpoint runs to rehydrate a game that is not
+ * resident. The count must not grow with the number of seats.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "uno.engine.flush-interval-ms=3600000",
+    "uno.journal.flush-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class GameQueryCountTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameStateFlusher gameStateFlusher;
+
+    @Autowired
+    private GameStateStore gameStateStore;
+
+    @Autowired
+    private GameEventJournal gameEventJournal;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private GameDeckRepository gameDeckRepository;
+
+    @Autowired
+    private GameEventRepository gameEventRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private MockMvc mockMvc;
+    private Statistics statistics;
+    private final List<Player> players = new ArrayList<>();
+    private final List<String> gameCodes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int i = 1; i <= 4; i++) {
+            players.add(playerRepository.save(new Player("QueryCountPlayer" + i, 1000)));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameStateFlusher.flushAll();
+        gameEventJournal.flush();
+        for (String gameCode : gameCodes) {
+            gameRepository.findByGameCode(gameCode).ifPresent(game -> {
+                gameEventRepository.deleteAll(gameEventRepository.findByGameIdOrderBySequenceNumber(game.getId()));
+                gameDeckRepository.findByGameId(game.getId()).ifPresent(gameDeckRepository::delete);
+                gameRepository.delete(game);
+            });
+            gameStateStore.evict(gameCode);
+        }
+        playerRepository.deleteAll(players);
+    }
+
+    @Test
+    void getGame_ShouldLoadGameAndDeckInTwoStatements() throws Exception {
+        String gameCode = startedGame();
+        Game row = gameRepository.findByGameCode(gameCode).orElseThrow();
+
+        statistics.clear();
+        mockMvc.perform(get("/api/games/{gameCode}", gameCode).param("playerId", players.get(1).getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("IN_PROGRESS")))
+                .andExpect(jsonPath("$.createdBy.playerName", is("QueryCountPlayer1")))
+                .andExpect(jsonPath("$.players[*].player.playerName",
+                    contains("QueryCountPlayer1", "QueryCountPlayer2", "QueryCountPlayer3", "QueryCountPlayer4")))
+                // The top card is not in the deck row; it comes from the games row
+                .andExpect(jsonPath("$.topCard.id", is(row.getTopCardId())))
+                .andExpect(jsonPath("$.topCard.color", is(row.getActiveColor().name())))
+                .andExpect(jsonPath("$.players[1].hand", hasSize(7)));
+
+        // The game with its seats and players, then the deck
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getGame_WhenResident_ShouldNotQuery() throws Exception {
+        String gameCode = startedGame();
+        mockMvc.perform(get("/api/games/{gameCode}", gameCode)).andExpect(status().isOk());
+
+        statistics.clear();
+        mockMvc.perform(get("/api/games/{gameCode}", gameCode)).andExpect(status().isOk());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getPlayerGames_ShouldLoadAllGamesInTwoStatements() throws Exception {
+        startedGame();
+        startedGame();
+        String waiting = gameService.createGame(new CreateGameRequest(players.get(0).getId(), 4, 2)).getGameCode();
+        gameCodes.add(waiting);
+        evictAll();
+
+        statistics.clear();
+        mockMvc.perform(get("/api/games/player/{playerId}", players.get(0).getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[*].players[*].player.playerName", hasItem("QueryCountPlayer4")))
+                .andExpect(jsonPath("$[*].players[*].hand[*]", hasSize(14)));
+
+        // The games with their seats and players, then the decks of all of them
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Starts a four seat game and writes it out, leaving it not resident.
+     */
+    private String startedGame() {
+        String gameCode = gameService.createGame(new CreateGameRequest(players.get(0).getId(), 4, 4)).getGameCode();
+        gameCodes.add(gameCode);
+        for (Player player : players.subList(1, players.size())) {
+            gameService.joinGame(new JoinGameRequest(gameCode, player.getId()));
+        }
+        evictAll();
+        return gameCode;
+    }
+
+    private void evictAll() {
+        gameStateFlusher.flushAll();
+        gameEventJournal.flush();
+        gameCodes.forEach(gameStateStore::evict);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.CreateGameRequest;
+import com.example.demo.dto.DrawCardRequest;
+import com.example.demo.dto.JoinGameRequest;
+import com.example.demo.engine.GameEventJournal;
+import com.example.demo.engine.GameStateFlusher;
+import com.example.demo.engine.GameStateStore;
+import com.example.demo.entity.Player;
+import com.example.demo.repository.*;
+import com.example.demo.service.GameService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Two players draw as fast as their turns allow, each from a request thread
+ * of their own. The game topic must see the draws in the order they were
+ * applied: numbered in that order and with the deck shrinking frame by frame.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "uno.engine.flush-interval-ms=3600000",
+    "uno.journal.flush-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class MoveBroadcastOrderTest {
+
+    private static final int DRAWS_PER_PLAYER = 15;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameStateFlusher gameStateFlusher;
+
+    @Autowired
+    private GameStateStore gameStateStore;
+
+    @Autowired
+    private GameEventJournal gameEventJournal;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private GameDeckRepository gameDeckRepository;
+
+    @Autowired
+    private GameEventRepository gameEventRepository;
+
+    @Autowired
+    @Qualifier("brokerChannel")
+    private AbstractSubscribableChannel brokerChannel;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Player> players = new ArrayList<>();
+    private final List<JsonNode> frames = new CopyOnWriteArrayList<>();
+    private MockMvc mockMvc;
+    private String gameCode;
+
+    private final ChannelInterceptor captureTopic = new ChannelInterceptor() {
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+            if (gameCode != null && ("/topic/game/" + gameCode).equals(destination)) {
+                try {
+                    frames.add(objectMapper.readTree((byte[]) message.getPayload()));
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            }
+            return message;
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        for (int i = 1; i <= 2; i++) {
+            players.add(playerRepository.save(new Player("BroadcastOrderPlayer" + i, 1000)));
+        }
+        gameCode = gameService.createGame(new CreateGameRequest(players.get(0).getId(), 2, 2)).getGameCode();
+        gameService.joinGame(new JoinGameRequest(gameCode, players.get(1).getId()));
+        brokerChannel.addInterceptor(captureTopic);
+    }
+
+    @AfterEach
+    void tearDown() {
+        brokerChannel.removeInterceptor(captureTopic);
+        gameStateFlusher.flushAll();
+        gameEventJournal.flush();
+        gameRepository.findByGameCode(gameCode).ifPresent(game -> {
+            gameEventRepository.deleteAll(gameEventRepository.findByGameIdOrderBySequenceNumber(game.getId()));
+            gameDeckRepository.findByGameId(game.getId()).ifPresent(gameDeckRepository::delete);
+            gameRepository.delete(game);
+        });
+        gameStateStore.evict(gameCode);
+        playerRepository.deleteAll(players);
+    }
+
+    @Test
+    void draws_ShouldBeBroadcastInTheOrderApplied() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (Player player : players) {
+                done.add(clients.submit(() -> drawRepeatedly(player.getId())));
+            }
+            for (Future<?> future : done) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        List<JsonNode> draws = awaitDraws(2 * DRAWS_PER_PLAYER);
+        for (int i = 1; i < draws.size(); i++) {
+            JsonNode previous = draws.get(i - 1);
+            JsonNode draw = draws.get(i);
+            assertTrue(draw.get("seq").asInt() > previous.get("seq").asInt(), "seq out of order at " + i);
+            assertTrue(draw.get("eventData").get("deckSize").asInt() < previous.get("eventData").get("deckSize").asInt(),
+                "draw " + i + " was applied before the one broadcast ahead of it");
+            assertNotEquals(previous.get("playerId").asLong(), draw.get("playerId").asLong(),
+                "turns alternate, so must the draws");
+        }
+    }
+
+    private Void drawRepeatedly(Long playerId) throws Exception {
+        String body = objectMapper.writeValueAsString(new DrawCardRequest(playerId, gameCode));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        int drawn = 0;
+        while (drawn < DRAWS_PER_PLAYER && System.nanoTime() < deadline) {
+            int status = mockMvc.perform(post("/api/games/draw-card")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body))
+                    .andReturn().getResponse().getStatus();
+            if (status == 200) {
+                drawn++;
+            }
+        }
+        assertEquals(DRAWS_PER_PLAYER, drawn);
+        return null;
+    }
+
+    /**
+     * The CARD_DRAWN events seen on the topic, unwrapping batch frames.
+     */
+    private List<JsonNode> awaitDraws(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        List<JsonNode> draws = List.of();
+        while (draws.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            draws = new ArrayList<>();
+            for (JsonNode frame : frames) {
+                if ("BATCH".equals(frame.get("eventType").asText())) {
+                    frame.get("eventData").get("events").forEach(draws::add);
+                } else {
+                    draws.add(frame);
+                }
+            }
+            draws.removeIf(event -> !"CARD_DRAWN".equals(event.get("eventType").asText()));
+        }
+        assertEquals(count, draws.size());
+        return draws;
+    }
+}
@@ -4,6 +4,7 @@ import com.example.demo.dto.PlayerRequest;
 import com.example.demo.dto.UpdateCoinsRequest;
 import com.example.demo.entity.Player;
 import com.example.demo.repository.PlayerRepository;
+import com.example.demo.service.PlayerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,6 +34,9 @@ class PlayerControllerTest {
     @Autowired
     private PlayerRepository playerRepository;
 
+    @Autowired
+    private PlayerService playerService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -41,7 +45,8 @@ class PlayerControllerTest {
     @BeforeEach
     void setUp() {
         mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
-        playerRepository.deleteAll();
+        // Through the service, so the leaderboard loses them too
+        playerRepository.findAll().forEach(player -> playerService.deletePlayer(player.getId()));
     }
 
     @Test
@@ -134,9 +139,9 @@ class PlayerControllerTest {
 
     @Test
     void getLeaderboard_ShouldReturnPlayersOrderedByCoins() throws Exception {
-        playerRepository.save(new Player("Player1", 100));
-        playerRepository.save(new Player("Player2", 300));
-        playerRepository.save(new Player("Player3", 200));
+        playerService.createPlayer(new PlayerRequest("Player1", 100));
+        playerService.createPlayer(new PlayerRequest("Player2", 300));
+        playerService.createPlayer(new PlayerRequest("Player3", 200));
 
         mockMvc.perform(get("/api/players/leaderboard"))
                 .andExpect(status().isOk())
@@ -145,4 +150,42 @@ class PlayerControllerTest {
                 .andExpect(jsonPath("$[1].coins", is(200)))
                 .andExpect(jsonPath("$[2].coins", is(100)));
     }
+
+    @Test
+    void getPlayerRank_ShouldFollowCoinUpdates() throws Exception {
+        Long poorest = playerService.createPlayer(new PlayerRequest("Player1", 100)).getId();
+        playerService.createPlayer(new PlayerRequest("Player2", 300));
+        playerService.createPlayer(new PlayerRequest("Player3", 200));
+
+        mockMvc.perform(get("/api/players/{id}/rank", poorest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank", is(3)));
+
+        UpdateCoinsRequest request = new UpdateCoinsRequest(250);
+        mockMvc.perform(patch("/api/players/{id}/add-coins", poorest)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/players/{id}/rank", poorest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank", is(1)))
+                .andExpect(jsonPath("$.coins", is(350)));
+        mockMvc.perform(get("/api/players/{id}/around", poorest).param("radius", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].rank", is(2)))
+                .andExpect(jsonPath("$[1].coins", is(300)));
+        mockMvc.perform(get("/api/players/rich").param("minCoins", "200").param("limit", "2").param("offset", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].coins", is(300)))
+                .andExpect(jsonPath("$[1].coins", is(200)));
+    }
+
+    @Test
+    void getPlayerRank_WithUnknownPlayer_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/api/players/{id}/rank", 999999L))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -0,0 +1,77 @@
+package com.example.demo.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameCommandLanesTest {
+
+    private GameCommandLanes lanes;
+
+    @BeforeEach
+    void setUp() {
+        lanes = new GameCommandLanes();
+        ReflectionTestUtils.setField(lanes, "laneCount", 4);
+        lanes.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        lanes.stop();
+    }
+
+    @Test
+    void submit_SameGame_ShouldRunInOrderOnOneThread() {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            int move = i;
+            futures.add(lanes.submit("123456", () -> {
+                order.add(move);
+                threads.add(Thread.currentThread().getName());
+                return move;
+            }));
+        }
+        futures.forEach(CompletableFuture::join);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, order.get(i));
+        }
+        assertEquals(1, threads.stream().distinct().count());
+    }
+
+    @Test
+    void call_ShouldRethrowCommandException() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> lanes.call("123456", () -> {
+                throw new RuntimeException("It's not your turn");
+            }));
+
+        assertEquals("It's not your turn", exception.getMessage());
+    }
+
+    @Test
+    void delayedSubmit_ShouldNotHoldUpTheLane() {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        CompletableFuture<String> later = lanes.submit("123456", () -> {
+            order.add("later");
+            return Thread.currentThread().getName();
+        }, 50);
+        lanes.submit("123456", () -> order.add("now")).join();
+
+        String thread = later.join();
+        assertEquals(List.of("now", "later"), order);
+        assertTrue(thread.startsWith("game-lane-"));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.engine;
+
+import com.example.demo.entity.Game;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameCommandRetryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GameCommandLanes lanes;
+    private GameCommandRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lanes = new GameCommandLanes();
+        ReflectionTestUtils.setField(lanes, "laneCount", 1);
+        lanes.start();
+        retry = new GameCommandRetry(meterRegistry, lanes);
+        ReflectionTestUtils.setField(retry, "maxAttempts", 3);
+        ReflectionTestUtils.setField(retry, "backoffMs", 1L);
+        ReflectionTestUtils.setField(retry, "maxBackoffMs", 5L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        lanes.stop();
+    }
+
+    @Test
+    void execute_ConflictThenSuccess_ShouldRetryAndCount() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.execute("play", "123456", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Game.class, 1L);
+            }
+            return "played";
+        });
+
+        assertEquals("played", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, meterRegistry.counter("uno.game.conflicts", "action", "play").count());
+    }
+
+    @Test
+    void execute_PersistentConflict_ShouldGiveUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> retry.execute("draw", "123456", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Game.class, 1L);
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1.0, meterRegistry.counter("uno.game.conflicts.exhausted", "action", "draw").count());
+    }
+
+    @Test
+    void execute_OtherFailure_ShouldNotRetry() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> retry.execute("play", "123456", () -> {
+            attempts.incrementAndGet();
+            throw new RuntimeException("It's not your turn");
+        }));
+
+        assertEquals("It's not your turn", exception.getMessage());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void submit_Conflict_ShouldRequeueBehindWaitingCommands() {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<String>> others = new ArrayList<>();
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> play = retry.submit("play", "123456", () -> {
+            order.add("play-" + attempts.incrementAndGet());
+            if (attempts.get() == 1) {
+                // Queued on the lane while the first attempt still runs
+                others.add(lanes.submit("654321", () -> {
+                    order.add("other");
+                    return "other";
+                }));
+                throw new ObjectOptimisticLockingFailureException(Game.class, 1L);
+            }
+            assertTrue(Thread.currentThread().getName().startsWith("game-lane-0"));
+            return "played";
+        });
+
+        assertEquals("played", play.join());
+        assertEquals("other", others.get(0).join());
+        // The retry waited off the lane instead of holding it
+        assertEquals(List.of("play-1", "other", "play-2"), order);
+        assertEquals(1.0, meterRegistry.counter("uno.game.conflicts", "action", "play").count());
+    }
+
+    @Test
+    void call_PersistentConflict_ShouldGiveUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> retry.call("draw", "123456", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Game.class, 1L);
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1.0, meterRegistry.counter("uno.game.conflicts.exhausted", "action", "draw").count());
+    }
+
+    @Test
+    void call_OtherFailure_ShouldNotRetry() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> retry.call("play", "123456", () -> {
+            attempts.incrementAndGet();
+            throw new RuntimeException("It's not your turn");
+        }));
+
+        assertEquals("It's not your turn", exception.getMessage());
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.engine;
+
+import com.example.demo.dto.CreateGameRequest;
+import com.example.demo.dto.GameResponse;
+import com.example.demo.entity.Game;
+import com.example.demo.entity.GameEvent;
+import com.example.demo.entity.Player;
+import com.example.demo.repository.GameEventRepository;
+import com.example.demo.repository.GameRepository;
+import com.example.demo.repository.PlayerRepository;
+import com.example.demo.service.GameService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "uno.journal.durability=WAIT_FOR_FLUSH",
+    "uno.journal.flush-interval-ms=3600000",
+    "uno.journal.backoff-ms=1"
+})
+@ActiveProfiles("test")
+class GameEventJournalTest {
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameStateFlusher gameStateFlusher;
+
+    @Autowired
+    private GameStateStore gameStateStore;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private GameEventRepository gameEventRepository;
+
+    @Autowired
+    private GameEventJournal gameEventJournal;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Player player;
+    private String gameCode;
+
+    @BeforeEach
+    void setUp() {
+        player = playerRepository.save(new Player("JournalTestPlayer", 1000));
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameStateFlusher.flushAll();
+        if (gameCode != null) {
+            gameRepository.findByGameCode(gameCode).ifPresent(game -> {
+                gameEventRepository.deleteAll(gameEventRepository.findByGameIdOrderBySequenceNumber(game.getId()));
+                gameRepository.delete(game);
+            });
+            gameStateStore.evict(gameCode);
+        }
+        playerRepository.delete(player);
+    }
+
+    @Test
+    void waitForFlush_ShouldWriteEventsBeforeReturning() {
+        // The linger is an hour, so only a waiting submitter gets written now
+        GameResponse game = gameService.createGame(new CreateGameRequest(player.getId(), 4, 2));
+        gameCode = game.getGameCode();
+
+        List<GameEvent> events = gameEventRepository.findByGameIdOrderBySequenceNumber(game.getId());
+        assertEquals(1, events.size());
+        assertEquals("GAME_CREATED", events.get(0).getEventType());
+        assertEquals("{\"gameCode\":\"" + gameCode + "\",\"maxPlayers\":4}", events.get(0).getEventData());
+    }
+
+    @Test
+    void failingBatch_ShouldOnlyDropTheBadRows() {
+        GameResponse game = gameService.createGame(new CreateGameRequest(player.getId(), 4, 2));
+        gameCode = game.getGameCode();
+        GameState state = gameStateStore.get(gameCode);
+        GameState missing = missingGame();
+        double failed = meterRegistry.counter("uno.journal.events.failed").count();
+
+        // Queue both without waiting, so they are written as one batch
+        ReflectionTestUtils.setField(gameEventJournal, "durability", GameEventJournal.Durability.FIRE_AND_FORGET);
+        try {
+            synchronized (missing) {
+                missing.logEvent(player.getId(), "PLAYER_LEFT", PendingEvent.data("reason", "gone"));
+                gameEventJournal.append(missing);
+            }
+            synchronized (state) {
+                state.logEvent(player.getId(), "UNO_CALLED", PendingEvent.data("cardsRemaining", 1));
+                gameEventJournal.append(state);
+            }
+            gameEventJournal.flush();
+        } finally {
+            ReflectionTestUtils.setField(gameEventJournal, "durability", GameEventJournal.Durability.WAIT_FOR_FLUSH);
+        }
+
+        assertEquals(List.of("GAME_CREATED", "UNO_CALLED"),
+            gameEventRepository.findByGameIdOrderBySequenceNumber(game.getId()).stream()
+                .map(GameEvent::getEventType).toList());
+        assertEquals(failed + 1, meterRegistry.counter("uno.journal.events.failed").count());
+    }
+
+    @Test
+    void waitForFlush_ShouldReportDroppedEvents() {
+        GameState missing = missingGame();
+
+        synchronized (missing) {
+            missing.logEvent(player.getId(), "PLAYER_LEFT", PendingEvent.data("reason", "gone"));
+            assertThrows(CompletionException.class, () -> gameEventJournal.append(missing));
+        }
+    }
+
+    /**
+     * State of a game that has no row, so its events break the foreign key.
+     */
+    private static GameState missingGame() {
+        Game game = new Game("NOGAME", null);
+        game.setId(-1L);
+        return GameState.fromEntities(game, null);
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.demo.engine;
+
+import com.example.demo.dto.CreateGameRequest;
+import com.example.demo.dto.GameResponse;
+import com.example.demo.dto.JoinGameRequest;
+import com.example.demo.entity.Game;
+import com.example.demo.entity.GameEvent;
+import com.example.demo.entity.Player;
+import com.example.demo.enums.GameDirection;
+import com.example.demo.enums.GameStatus;
+import com.example.demo.repository.*;
+import com.example.demo.service.GameService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without a test transaction so that the write-behind flush actually
+ * reaches the database. The background flush and the journal linger are
+ * pushed out so every write happens in the explicit flushes.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "uno.engine.flush-interval-ms=3600000",
+    "uno.journal.flush-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class GameStateFlusherTest {
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameStateFlusher gameStateFlusher;
+
+    @Autowired
+    private GameStateStore gameStateStore;
+
+    @Autowired
+    private GameEventJournal gameEventJournal;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private GameDeckRepository gameDeckRepository;
+
+    @Autowired
+    private GameEventRepository gameEventRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private GameCommandRetry gameCommandRetry;
+
+    @Autowired
+    @Qualifier("brokerChannel")
+    private AbstractSubscribableChannel brokerChannel;
+
+    private final List<Message<?>> sent = new CopyOnWriteArrayList<>();
+    private final ChannelInterceptor captureSent = new ChannelInterceptor() {
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            sent.add(message);
+            return message;
+        }
+    };
+
+    private final List<Player> players = new ArrayList<>();
+    private String gameCode;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 4; i++) {
+            players.add(playerRepository.save(new Player("FlushTestPlayer" + i, 1000)));
+        }
+        brokerChannel.addInterceptor(captureSent);
+    }
+
+    @AfterEach
+    void tearDown() {
+        brokerChannel.removeInterceptor(captureSent);
+        gameStateFlusher.flushAll();
+        gameEventJournal.flush();
+        gameRepository.findByGameCode(gameCode).ifPresent(game -> {
+            gameEventRepository.deleteAll(gameEventRepository.findByGameIdOrderBySequenceNumber(game.getId()));
+            gameDeckRepository.findByGameId(game.getId()).ifPresent(gameDeckRepository::delete);
+            gameRepository.delete(game);
+        });
+        gameStateStore.evict(gameCode);
+        playerRepository.deleteAll(players);
+    }
+
+    @Test
+    void gameStart_ShouldBeWrittenInFewStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        GameResponse game = gameService.createGame(new CreateGameRequest(players.get(0).getId(), 4, 4));
+        gameCode = game.getGameCode();
+        for (Player player : players.subList(1, players.size())) {
+            game = gameService.joinGame(new JoinGameRequest(gameCode, player.getId()));
+        }
+        gameStateFlusher.flushAll();
+        gameEventJournal.flush();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(GameStatus.IN_PROGRESS, game.getStatus());
+        // GAME_CREATED, three PLAYER_JOINED and GAME_STARTED
+        assertEquals(5, gameEventRepository.findByGameIdOrderBySequenceNumber(game.getId()).size());
+        // Each join also broadcasts PLAYER_JOINED and GAME_UPDATE frames, which
+        // take the numbers in between
+        assertEquals(List.of(1, 2, 5, 8, 11), gameEventRepository.findByGameIdOrderBySequenceNumber(game.getId())
+            .stream().map(GameEvent::getSequenceNumber).toList());
+        assertTrue(gameDeckRepository.findByGameId(game.getId()).isPresent());
+        Game row = gameRepository.findByGameCode(gameCode).orElseThrow();
+        assertEquals(game.getTopCard().getId().intValue(), row.getTopCardId());
+        assertEquals(game.getTopCard().getColor(), row.getActiveColor());
+
+        // 22 with batching; without it every seat update and event insert
+        // is a statement of its own (29)
+        assertTrue(statements <= 25, "Game start took " + statements + " statements");
+    }
+
+    @Test
+    void flush_ShouldAdvanceVersionOfGameRow() {
+        gameCode = gameService.createGame(new CreateGameRequest(players.get(0).getId(), 4, 2)).getGameCode();
+        gameService.joinGame(new JoinGameRequest(gameCode, players.get(1).getId()));
+        gameStateFlusher.flushAll();
+
+        Game game = gameRepository.findByGameCode(gameCode).orElseThrow();
+        assertTrue(game.getVersion() > 0);
+        assertEquals(game.getVersion(), gameStateStore.find(gameCode).orElseThrow().getVersion());
+    }
+
+    @Test
+    void flush_RowChangedByAnotherWriter_ShouldReloadAndResync() throws Exception {
+        gameCode = gameService.createGame(new CreateGameRequest(players.get(0).getId(), 4, 4)).getGameCode();
+        gameStateFlusher.flushAll();
+        double conflicts = meterRegistry.counter("uno.game.conflicts", "action", "flush").count();
+
+        // Another node writes the game behind this node's back
+        Game game = gameRepository.findByGameCode(gameCode).orElseThrow();
+        game.setDirection(GameDirection.COUNTER_CLOCKWISE);
+        gameRepository.save(game);
+
+        gameService.joinGame(new JoinGameRequest(gameCode, players.get(1).getId()));
+        GameState stale = gameStateStore.find(gameCode).orElseThrow();
+        gameStateFlusher.flushAll();
+
+        GameState fresh = gameStateStore.find(gameCode).orElseThrow();
+        assertNotSame(stale, fresh);
+        assertEquals(conflicts + 1, meterRegistry.counter("uno.game.conflicts", "action", "flush").count());
+        assertEquals(GameDirection.COUNTER_CLOCKWISE, fresh.getDirection());
+        // The seat row was written by the join itself
+        assertEquals(2, fresh.getSeats().size());
+        assertTrue(fresh.getNextEventSeq() >= stale.getNextEventSeq());
+
+        // The game topic and each player are told to drop what they hold
+        assertTrue(received("/topic/game/" + gameCode, "RESYNC"));
+        for (Player player : players.subList(0, 2)) {
+            assertTrue(received("/queue/game/" + gameCode + "/player/" + player.getId(), "RESYNC"));
+        }
+
+        // The reloaded state writes cleanly on top of the other writer
+        gameStateFlusher.flushAll();
+        assertEquals(gameRepository.findByGameCode(gameCode).orElseThrow().getVersion(), fresh.getVersion());
+        assertEquals(GameDirection.COUNTER_CLOCKWISE,
+            gameRepository.findByGameCode(gameCode).orElseThrow().getDirection());
+    }
+
+    @Test
+    void commandWaitingForReplacedState_ShouldRunAgainOnReloadedState() throws Exception {
+        gameCode = gameService.createGame(new CreateGameRequest(players.get(0).getId(), 4, 4)).getGameCode();
+        gameService.joinGame(new JoinGameRequest(gameCode, players.get(1).getId()));
+        gameStateFlusher.flushAll();
+
+        Game game = gameRepository.findByGameCode(gameCode).orElseThrow();
+        game.setDirection(GameDirection.COUNTER_CLOCKWISE);
+        gameRepository.save(game);
+        gameService.joinGame(new JoinGameRequest(gameCode, players.get(2).getId()));
+
+        GameState stale = gameStateStore.find(gameCode).orElseThrow();
+        double conflicts = meterRegistry.counter("uno.game.conflicts", "action", "leave").count();
+        Long leaving = players.get(1).getId();
+        CompletableFuture<GameResponse> leave;
+        synchronized (stale) {
+            // The command finds the stale state and waits for its lock while
+            // the flush conflicts and replaces it
+            leave = gameCommandRetry.submit("leave", gameCode, () -> gameService.leaveGame(leaving, gameCode));
+            awaitLaneBlocked();
+            gameStateFlusher.flushAll();
+        }
+
+        GameResponse response = leave.get(10, TimeUnit.SECONDS);
+        GameState fresh = gameStateStore.find(gameCode).orElseThrow();
+        assertNotSame(stale, fresh);
+        assertEquals(conflicts + 1, meterRegistry.counter("uno.game.conflicts", "action", "leave").count());
+        assertFalse(fresh.seatOf(leaving).isActive());
+        assertEquals(GameDirection.COUNTER_CLOCKWISE, response.getDirection());
+    }
+
+    private void awaitLaneBlocked() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            boolean blocked = Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(t -> t.getName().startsWith("game-lane-") && t.getState() == Thread.State.BLOCKED);
+            if (blocked) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        fail("The command never waited for the state lock");
+    }
+
+    private boolean received(String destination, String eventType) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            for (Message<?> message : sent) {
+                if (destination.equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))
+                        && new String((byte[]) message.getPayload(), StandardCharsets.UTF_8)
+                            .contains("\"eventType\":\"" + eventType + "\"")) {
+                    return true;
+                }
+            }
+            Thread.sleep(5);
+        }
+        return false;
+    }
+}
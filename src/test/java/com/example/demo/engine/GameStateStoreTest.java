@@ -0,0 +1,55 @@
+package com.example.demo.engine;
+
+import com.example.demo.entity.Game;
+import com.example.demo.entity.Player;
+import com.example.demo.repository.GameDeckRepository;
+import com.example.demo.repository.GameRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GameStateStoreTest {
+
+    private final GameRepository gameRepository = mock(GameRepository.class);
+    private final GameDeckRepository gameDeckRepository = mock(GameDeckRepository.class);
+    private final GameStateStore store = new GameStateStore(gameRepository, gameDeckRepository);
+
+    @Test
+    void hydrate_ShouldContinueAfterJournalWhenRowIsBehind() {
+        stored(game(5, 9));
+
+        assertEquals(10, store.get("123456").getNextEventSeq());
+    }
+
+    @Test
+    void hydrate_ShouldKeepRowWhenAheadOfJournal() {
+        stored(game(12, 9));
+
+        assertEquals(12, store.get("123456").getNextEventSeq());
+    }
+
+    @Test
+    void hydrate_ShouldSeedRowsWithoutCounterFromJournal() {
+        stored(game(null, 0));
+
+        assertEquals(1, store.get("123456").getNextEventSeq());
+    }
+
+    private void stored(Game game) {
+        when(gameRepository.findByGameCodeWithState(game.getGameCode())).thenReturn(Optional.of(game));
+        when(gameDeckRepository.findByGameId(game.getId())).thenReturn(Optional.empty());
+    }
+
+    private static Game game(Integer nextEventSeq, int lastEventSeq) {
+        Player creator = new Player("Player1", 1000);
+        creator.setId(1L);
+        Game game = new Game("123456", creator);
+        game.setId(1L);
+        game.setNextEventSeq(nextEventSeq);
+        game.setLastEventSeq(lastEventSeq);
+        return game;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.demo.engine;
+
+import com.example.demo.entity.Card;
+import com.example.demo.entity.Game;
+import com.example.demo.entity.GameDeck;
+import com.example.demo.entity.GamePlayer;
+import com.example.demo.entity.Player;
+import com.example.demo.enums.CardColor;
+import com.example.demo.enums.CardType;
+import com.example.demo.enums.GameStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateTest {
+
+    private Game game;
+    private GameState state;
+
+    @BeforeEach
+    void setUp() {
+        game = new Game("123456", player(1L, "Alice"));
+        game.setId(1L);
+        for (int i = 0; i < 3; i++) {
+            GamePlayer gamePlayer = new GamePlayer(game, player(i + 1L, "Player" + (i + 1)), i);
+            gamePlayer.setId(i + 1L);
+            game.getGamePlayers().add(gamePlayer);
+        }
+
+        state = GameState.fromEntities(game, null);
+        state.start(new Random(42));
+    }
+
+    @Test
+    void start_ShouldDealSevenCardsAndFlipTopCard() {
+        assertEquals(GameStatus.IN_PROGRESS, state.getStatus());
+        state.getSeats().forEach(seat -> assertEquals(7, seat.getCardsCount()));
+        assertNotNull(state.getTopCard());
+        assertEquals(108 - 21 - 1, state.getDeckSize());
+    }
+
+    @Test
+    void playCard_DrawTwo_ShouldSkipVictimOnce() {
+        Card drawTwo = plantInCurrentHand(CardType.DRAW_TWO, state.getActiveColor());
+
+        state.playCard(1L, drawTwo.getId(), null);
+
+        assertEquals(9, state.getSeats().get(1).getCardsCount());
+        assertEquals(3L, state.getCurrentSeat().getPlayerId());
+    }
+
+    @Test
+    void playCard_OutOfTurn_ShouldThrow() {
+        Card card = plantInCurrentHand(CardType.NUMBER, state.getActiveColor());
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> state.playCard(2L, card.getId(), null));
+        assertEquals("It's not your turn", exception.getMessage());
+    }
+
+    @Test
+    void drainHandChanges_AfterStart_ShouldHoldDealtHands() {
+        List<HandChange> changes = state.drainHandChanges();
+
+        assertEquals(List.of(1L, 2L, 3L), changes.stream().map(HandChange::playerId).toList());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(state.getSeats().get(i).getHand(), changes.get(i).added());
+            assertTrue(changes.get(i).removed().isEmpty());
+            assertEquals(7, changes.get(i).handSize());
+        }
+        assertTrue(state.drainHandChanges().isEmpty());
+    }
+
+    @Test
+    void drainHandChanges_DrawTwo_ShouldHoldPlayedAndDrawnCards() {
+        state.drainHandChanges();
+        Card drawTwo = plantInCurrentHand(CardType.DRAW_TWO, state.getActiveColor());
+
+        state.playCard(1L, drawTwo.getId(), null);
+        List<HandChange> changes = state.drainHandChanges();
+
+        assertEquals(2, changes.size());
+        assertEquals(new HandChange(1L, List.of(), List.of(drawTwo), 7), changes.get(0));
+        HandChange victim = changes.get(1);
+        assertEquals(2L, victim.playerId());
+        assertEquals(state.getSeats().get(1).getHand().subList(7, 9), victim.added());
+        assertEquals(9, victim.handSize());
+    }
+
+    @Test
+    void drainChanges_ShouldClearPendingChanges() {
+        assertTrue(state.hasChanges());
+
+        GameChanges changes = state.drainChanges();
+
+        assertNotNull(changes.game());
+        assertNotNull(changes.deck());
+        assertFalse(state.hasChanges());
+    }
+
+    @Test
+    void drainEvents_ShouldReturnEventsInSequence() {
+        List<PendingEvent> events = state.drainEvents();
+
+        assertEquals("GAME_STARTED", events.get(0).eventType());
+        assertEquals(3, events.get(0).eventData().get("playerCount"));
+        assertEquals(state.getNextEventSeq(), events.get(events.size() - 1).sequenceNumber() + 1);
+        assertTrue(state.drainEvents().isEmpty());
+    }
+
+    @Test
+    void start_SameSeed_ShouldDealSameCards() {
+        GameState other = GameState.fromEntities(game, null);
+        other.start(new Random(42));
+
+        assertArrayEquals(state.getDrawOrder(), other.getDrawOrder());
+        assertEquals(state.getTopCard(), other.getTopCard());
+    }
+
+    @Test
+    void drawCard_EmptyDeck_ShouldReshuffleDiscardPile() {
+        int discarded = 0;
+        while (state.getDeckSize() > 0) {
+            SeatState seat = state.getCurrentSeat();
+            state.drawCard(seat.getPlayerId());
+        }
+        for (SeatState seat : state.getSeats()) {
+            // Move a few cards from hand onto the discard pile
+            for (int i = 0; i < 3; i++) {
+                state.getDiscardPile().add(seat.getHand().remove(0));
+                discarded++;
+            }
+        }
+
+        state.drawCard(state.getCurrentSeat().getPlayerId());
+
+        assertEquals(discarded - 1, state.getDeckSize());
+        assertTrue(state.getDiscardPile().isEmpty());
+    }
+
+    @Test
+    void fromEntities_ShouldRestorePackedDeck() {
+        GameChanges changes = state.drainChanges();
+        game.setTopCardId(changes.game().topCardId());
+        game.setActiveColor(changes.game().activeColor());
+        GameChanges.DeckRow row = changes.deck();
+        GameDeck deck = new GameDeck(game);
+        deck.setDrawPile(row.drawPile());
+        deck.setDrawPosition(row.drawPosition());
+        deck.setShuffleSeed(row.shuffleSeed());
+        deck.setDiscardPile(row.discardPile());
+        deck.setHands(row.hands());
+
+        GameState restored = GameState.fromEntities(game, deck);
+
+        assertArrayEquals(state.getDrawOrder(), restored.getDrawOrder());
+        assertEquals(state.getDeckSize(), restored.getDeckSize());
+        assertEquals(state.getTopCard(), restored.getTopCard());
+        assertEquals(state.getActiveColor(), restored.getActiveColor());
+        for (int i = 0; i < state.getSeats().size(); i++) {
+            assertEquals(state.getSeats().get(i).getHand(), restored.getSeats().get(i).getHand());
+        }
+    }
+
+    private Card plantInCurrentHand(CardType type, CardColor color) {
+        Card card = CardFaces.all().stream()
+            .filter(c -> c.getCardType() == type && c.getColor() == color)
+            .filter(c -> state.getCurrentSeat().findInHand(c.getId()) == null)
+            .findFirst()
+            .orElseThrow();
+        state.getCurrentSeat().getHand().add(card);
+        return card;
+    }
+
+    private static Player player(Long id, String name) {
+        Player player = new Player(name, 100);
+        player.setId(id);
+        return player;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.demo.engine;
+
+import com.example.demo.dto.LobbyGameSummary;
+import com.example.demo.dto.LobbyPage;
+import com.example.demo.entity.Game;
+import com.example.demo.entity.GamePlayer;
+import com.example.demo.entity.Player;
+import com.example.demo.enums.GameStatus;
+import com.example.demo.repository.GameRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LobbyIndexTest {
+
+    private final GameRepository gameRepository = mock(GameRepository.class);
+    private final GameStateStore gameStateStore = mock(GameStateStore.class);
+    private final LobbyIndex lobbyIndex = new LobbyIndex(gameRepository, gameStateStore,
+        mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        lobbyIndex.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void update_ShouldListOnlyWaitingGamesWithFreeSeats() {
+        GameState open = state("111111", 1, 3);
+        GameState full = state("222222", 3, 3);
+        GameState started = state("333333", 2, 4);
+        started.start(new Random(1));
+
+        lobbyIndex.update(open);
+        lobbyIndex.update(full);
+        lobbyIndex.update(started);
+
+        assertEquals(List.of("111111"), codes());
+        assertEquals(1, lobbyIndex.availableGames().get(0).getPlayerCount());
+    }
+
+    @Test
+    void warmUp_ShouldKeepEntriesUpdatedMeanwhile() {
+        lobbyIndex.update(state("111111", 2, 4));
+        when(gameRepository.findLobbySummaries(GameStatus.WAITING_FOR_PLAYERS, null)).thenReturn(List.of(
+            summary("111111", 1, LocalDateTime.now()),
+            summary("000000", 1, LocalDateTime.now().minusMinutes(5))));
+
+        lobbyIndex.warmUp();
+
+        assertEquals(List.of("000000", "111111"), codes());
+        assertEquals(2, lobbyIndex.availableGames().get(1).getPlayerCount());
+    }
+
+    @Test
+    void page_ShouldContinueAfterCursorInKeysetOrder() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 12, 0);
+        when(gameRepository.findLobbySummaries(GameStatus.WAITING_FOR_PLAYERS, null)).thenReturn(List.of(
+            summary("100003", 1, createdAt),
+            summary("100001", 1, createdAt),
+            summary("100002", 3, createdAt),
+            summary("100000", 2, createdAt.minusMinutes(1))));
+        lobbyIndex.warmUp();
+
+        LobbyPage first = lobbyIndex.page(null, 2, 1, null);
+        assertEquals(List.of("100000", "100001"), codes(first));
+        LobbyPage second = lobbyIndex.page(first.getNextCursor(), 2, 1, null);
+        assertEquals(List.of("100002", "100003"), codes(second));
+        assertNull(second.getNextCursor());
+
+        assertEquals(List.of("100001", "100003"), codes(lobbyIndex.page(null, 10, 3, null)));
+        assertEquals(List.of("100003"), codes(lobbyIndex.page(first.getNextCursor(), 10, 3, 4)));
+        assertTrue(lobbyIndex.page(null, 10, 1, 3).getGames().isEmpty());
+
+        // A game created meanwhile goes to the end and leaves the next page in place
+        lobbyIndex.update(state("099999", 1, 4));
+        LobbyPage again = lobbyIndex.page(first.getNextCursor(), 2, 1, null);
+        assertEquals(codes(second), codes(again));
+        assertEquals(List.of("099999"), codes(lobbyIndex.page(again.getNextCursor(), 2, 1, null)));
+    }
+
+    @Test
+    void page_WithInvalidCursor_ShouldThrow() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> lobbyIndex.page("bm90IGEgY3Vyc29y", 10, 1, null));
+        assertEquals("Invalid cursor", exception.getMessage());
+    }
+
+    @Test
+    void rollback_OfEvictedGame_ShouldReloadCommittedRows() {
+        TransactionSynchronizationManager.initSynchronization();
+        GameState state = state("111111", 2, 2);
+        lobbyIndex.update(state("111111", 1, 2));
+        lobbyIndex.update(state);
+        assertTrue(codes().isEmpty());
+
+        // The join rolled back and its state was evicted; the row still has one seat
+        when(gameStateStore.find("111111")).thenReturn(Optional.empty());
+        when(gameRepository.findLobbySummaries(GameStatus.WAITING_FOR_PLAYERS, "111111"))
+            .thenReturn(List.of(summary("111111", 1, LocalDateTime.now())));
+        rollBack();
+
+        assertEquals(List.of("111111"), codes());
+        assertEquals(1, lobbyIndex.availableGames().get(0).getPlayerCount());
+    }
+
+    @Test
+    void rollback_OfResidentGame_ShouldUseResidentState() {
+        GameState state = state("111111", 1, 4);
+        TransactionSynchronizationManager.initSynchronization();
+        lobbyIndex.update(state);
+        when(gameStateStore.find("111111")).thenReturn(Optional.of(state));
+
+        rollBack();
+
+        assertEquals(List.of("111111"), codes());
+        verify(gameRepository, never()).findLobbySummaries(any(), any());
+    }
+
+    private void rollBack() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
+    private List<String> codes() {
+        return lobbyIndex.availableGames().stream().map(LobbyGameSummary::getGameCode).toList();
+    }
+
+    private static List<String> codes(LobbyPage page) {
+        return page.getGames().stream().map(LobbyGameSummary::getGameCode).toList();
+    }
+
+    private static GameState state(String gameCode, int players, int maxPlayers) {
+        Game game = new Game(gameCode, player(1L));
+        game.setId(Long.parseLong(gameCode));
+        game.setMaxPlayers(maxPlayers);
+        for (int i = 0; i < players; i++) {
+            GamePlayer gamePlayer = new GamePlayer(game, player(i + 1L), i);
+            gamePlayer.setId(i + 1L);
+            game.getGamePlayers().add(gamePlayer);
+        }
+        return GameState.fromEntities(game, null);
+    }
+
+    private static LobbyGameSummary summary(String gameCode, int players, LocalDateTime createdAt) {
+        return new LobbyGameSummary(Long.parseLong(gameCode), gameCode, GameStatus.WAITING_FOR_PLAYERS, players, 4, 2, 1L, "Player1", createdAt);
+    }
+
+    private static Player player(Long id) {
+        Player player = new Player("Player" + id, 1000);
+        player.setId(id);
+        return player;
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.demo.service;
+
+import com.example.demo.config.StompDiagnostics;
+import com.example.demo.config.StompMessageConverter;
+import com.example.demo.config.StompProtocolHandler;
+import com.example.demo.dto.CardDto;
+import com.example.demo.dto.GamePlayerDto;
+import com.example.demo.dto.GameResponse;
+import com.example.demo.engine.CardFaces;
+import com.example.demo.engine.GameStateFlusher;
+import com.example.demo.engine.GameStateStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Broadcasts through a real simple broker with a growing number of
+ * subscribers. The event is serialized once per broadcast whatever the
+ * subscriber count, every subscriber receives the same buffer, and what
+ * each extra subscriber costs stays far below the size of the payload.
+ */
+class BroadcastFanOutTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BroadcastFanOutTest.class);
+
+    private static final String GAME_CODE = "FANOUT";
+
+    private final AtomicInteger encodings = new AtomicInteger();
+    private final List<Object> delivered = Collections.synchronizedList(new ArrayList<>());
+
+    private ExecutorSubscribableChannel clientInbound;
+    private SimpleBrokerMessageHandler broker;
+    private SimpMessagingTemplate template;
+    private StompMessageConverter converter;
+    private OptimizedWebSocketService service;
+
+    @BeforeEach
+    void setUp() {
+        clientInbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        clientOutbound.subscribe(message -> {
+            if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                delivered.add(message.getPayload());
+            }
+        });
+
+        broker = new SimpleBrokerMessageHandler(clientInbound, clientOutbound, brokerChannel, List.of("/topic"));
+        broker.start();
+
+        converter = new StompMessageConverter(new StompDiagnostics()) {
+            @Override
+            public byte[] encode(Object payload) {
+                encodings.incrementAndGet();
+                return super.encode(payload);
+            }
+        };
+        template = new SimpMessagingTemplate(brokerChannel);
+        template.setMessageConverter(converter);
+        // No resident game state, so broadcasts go out unsequenced; without a
+        // started coalescer every event is its own frame
+        service = service(new GameBroadcastCoalescer());
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.stop();
+    }
+
+    @Test
+    void broadcast_ShouldSerializeOnceAndShareBuffer() {
+        subscribe(0, 50);
+
+        service.broadcastUnoCalled(GAME_CODE, 1L, "Alice", 1);
+
+        assertEquals(1, encodings.get());
+        assertEquals(50, delivered.size());
+        delivered.forEach(payload -> assertSame(delivered.get(0), payload));
+        // The STOMP encoder terminates the frame; the body itself is plain JSON
+        assertFalse(StompProtocolHandler.isTerminated((byte[]) delivered.get(0)));
+    }
+
+    @Test
+    void broadcast_AllocationPerSubscriberShouldStayFlatAndExcludePayload() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        GameResponse game = largeGame();
+        int broadcasts = 200;
+
+        // Warm up, so class loading and compilation do not count
+        subscribe(0, 1);
+        for (int i = 0; i < broadcasts; i++) {
+            service.broadcastResync(GAME_CODE, game);
+        }
+        int payloadSize = ((byte[]) delivered.get(0)).length;
+
+        int[] counts = { 1, 10, 100, 1000 };
+        long[] perBroadcast = new long[counts.length];
+        int subscribed = 1;
+        for (int c = 0; c < counts.length; c++) {
+            int subscribers = counts[c];
+            subscribe(subscribed, subscribers);
+            subscribed = subscribers;
+            encodings.set(0);
+            delivered.clear();
+
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < broadcasts; i++) {
+                service.broadcastResync(GAME_CODE, game);
+            }
+            perBroadcast[c] = (threads.getCurrentThreadAllocatedBytes() - allocated) / broadcasts;
+
+            log.info("{} subscribers: {} bytes allocated per broadcast of a {} byte payload",
+                subscribers, perBroadcast[c], payloadSize);
+            assertEquals(broadcasts, encodings.get());
+            assertEquals(broadcasts * subscribers, delivered.size());
+        }
+
+        // What each subscriber adds: the message wrapping the shared buffer,
+        // never a copy or re-serialization of the payload
+        long perSubscriberSmall = (perBroadcast[2] - perBroadcast[1]) / (counts[2] - counts[1]);
+        long perSubscriberLarge = (perBroadcast[3] - perBroadcast[2]) / (counts[3] - counts[2]);
+        assertTrue(perSubscriberLarge < payloadSize / 4,
+            perSubscriberLarge + " bytes per subscriber for a " + payloadSize + " byte payload");
+        assertTrue(perSubscriberLarge < 2 * perSubscriberSmall + 256,
+            "per subscriber cost grew from " + perSubscriberSmall + " to " + perSubscriberLarge + " bytes");
+    }
+
+    @Test
+    void broadcast_EventsOfOneTick_ShouldGoOutAsOneBatchFrame() throws Exception {
+        GameBroadcastCoalescer coalescer = new GameBroadcastCoalescer();
+        ReflectionTestUtils.setField(coalescer, "tickMs", 50L);
+        coalescer.start();
+        OptimizedWebSocketService ticking = service(coalescer);
+        subscribe(0, 10);
+
+        try {
+            ticking.broadcastPlayerJoined(GAME_CODE, 2L, "Bob", 1, 2);
+            ticking.broadcastUnoCalled(GAME_CODE, 1L, "Alice", 1);
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (delivered.size() < 10 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            coalescer.stop();
+        }
+
+        assertEquals(1, encodings.get());
+        assertEquals(10, delivered.size());
+        JsonNode frame = new ObjectMapper().readTree((byte[]) delivered.get(0));
+        assertEquals("BATCH", frame.get("eventType").asText());
+        JsonNode events = frame.get("eventData").get("events");
+        assertEquals(2, events.size());
+        assertEquals("PLAYER_JOINED", events.get(0).get("eventType").asText());
+        assertEquals("UNO_CALLED", events.get(1).get("eventType").asText());
+    }
+
+    private OptimizedWebSocketService service(GameBroadcastCoalescer coalescer) {
+        return new OptimizedWebSocketService(template, new StompDiagnostics(), converter, mock(GameStateStore.class),
+                mock(GameStateFlusher.class), mock(GameEventReplay.class), coalescer);
+    }
+
+    /**
+     * A game whose RESYNC payload runs to tens of kilobytes: two players
+     * holding every card face.
+     */
+    private static GameResponse largeGame() {
+        List<CardDto> cards = CardFaces.all().stream().map(CardDto::fromCard).toList();
+        List<GamePlayerDto> players = new ArrayList<>();
+        for (long id = 1; id <= 2; id++) {
+            GamePlayerDto player = new GamePlayerDto();
+            player.setId(id);
+            player.setCardsCount(cards.size());
+            player.setHand(cards);
+            players.add(player);
+        }
+        GameResponse game = new GameResponse();
+        game.setGameCode(GAME_CODE);
+        game.setPlayers(players);
+        return game;
+    }
+
+    private void subscribe(int from, int to) {
+        for (int i = from; i < to; i++) {
+            SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+            connect.setSessionId("session-" + i);
+            clientInbound.send(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+            accessor.setSessionId("session-" + i);
+            accessor.setSubscriptionId("sub-0");
+            accessor.setDestination("/topic/game/" + GAME_CODE);
+            Message<byte[]> subscribe = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+            clientInbound.send(subscribe);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.OptimizedGameEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameBroadcastCoalescerTest {
+
+    private final GameBroadcastCoalescer coalescer = new GameBroadcastCoalescer();
+    private final BlockingQueue<List<OptimizedGameEvent>> published = new LinkedBlockingQueue<>();
+
+    @AfterEach
+    void tearDown() {
+        coalescer.stop();
+    }
+
+    @Test
+    void submit_NotStarted_ShouldPublishEachEventAtOnce() {
+        OptimizedGameEvent event = event("PLAYER_JOINED", 2L, 3);
+
+        coalescer.submit("123456", event, published::add);
+
+        assertEquals(List.of(List.of(event)), List.copyOf(published));
+    }
+
+    @Test
+    void submit_WithinOneTick_ShouldPublishEveryEventTogether() throws Exception {
+        start(50);
+        OptimizedGameEvent drawn = event("CARD_DRAWN", 2L, 3);
+        OptimizedGameEvent drawnAgain = event("CARD_DRAWN", 2L, 4);
+        OptimizedGameEvent uno = event("UNO_CALLED", 2L, 5);
+
+        for (OptimizedGameEvent event : List.of(drawn, drawnAgain, uno)) {
+            coalescer.submit("123456", event, published::add);
+        }
+
+        assertEquals(List.of(drawn, drawnAgain, uno), published.poll(5, TimeUnit.SECONDS));
+        assertNull(published.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void submit_WithinOneTick_ShouldKeepOnlyTheLatestGameUpdate() throws Exception {
+        start(50);
+        OptimizedGameEvent joined = event("PLAYER_JOINED", 2L, 3);
+        OptimizedGameEvent update = event("GAME_UPDATE", null, 4);
+        OptimizedGameEvent started = event("GAME_STARTED", null, 5);
+        OptimizedGameEvent updateAgain = event("GAME_UPDATE", null, 6);
+
+        for (OptimizedGameEvent event : List.of(joined, update, started, updateAgain)) {
+            coalescer.submit("123456", event, published::add);
+        }
+
+        assertEquals(List.of(joined, started, updateAgain), published.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void submit_DifferentGames_ShouldPublishSeparately() throws Exception {
+        start(50);
+
+        coalescer.submit("111111", event("UNO_CALLED", 2L, 3), published::add);
+        coalescer.submit("222222", event("UNO_CALLED", 2L, 3), published::add);
+
+        assertEquals(1, published.poll(5, TimeUnit.SECONDS).size());
+        assertEquals(1, published.poll(5, TimeUnit.SECONDS).size());
+    }
+
+    private void start(long tickMs) {
+        ReflectionTestUtils.setField(coalescer, "tickMs", tickMs);
+        coalescer.start();
+    }
+
+    private static OptimizedGameEvent event(String eventType, Long playerId, int seq) {
+        OptimizedGameEvent event = OptimizedGameEvent.create(eventType, "123456", playerId, null, null);
+        event.setSeq(seq);
+        return event;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CreateGameRequest;
+import com.example.demo.dto.JoinGameRequest;
+import com.example.demo.engine.GameStateFlusher;
+import com.example.demo.engine.GameStateStore;
+import com.example.demo.entity.Player;
+import com.example.demo.repository.GameEventRepository;
+import com.example.demo.repository.GameRepository;
+import com.example.demo.repository.PlayerRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "uno.journal.durability=WAIT_FOR_FLUSH",
+    "uno.replay.capacity=2",
+    "uno.broadcast.tick-ms=0"
+})
+@ActiveProfiles("test")
+class GameEventReplayTest {
+
+    private static final String SESSION = "replay-session";
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameEventReplay gameEventReplay;
+
+    @Autowired
+    private GameStateFlusher gameStateFlusher;
+
+    @Autowired
+    private GameStateStore gameStateStore;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private GameEventRepository gameEventRepository;
+
+    @Autowired
+    private SimpleBrokerMessageHandler simpleBrokerMessageHandler;
+
+    @Autowired
+    @Qualifier("clientOutboundChannel")
+    private AbstractSubscribableChannel clientOutboundChannel;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Message<?>> replayed = new CopyOnWriteArrayList<>();
+    private final ChannelInterceptor capture = new ChannelInterceptor() {
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            if (SESSION.equals(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()))) {
+                replayed.add(message);
+                return null;
+            }
+            return message;
+        }
+    };
+
+    private List<Player> players;
+    private String gameCode;
+
+    @BeforeEach
+    void setUp() {
+        players = List.of(
+                playerRepository.save(new Player("ReplayPlayer1", 1000)),
+                playerRepository.save(new Player("ReplayPlayer2", 1000)),
+                playerRepository.save(new Player("ReplayPlayer3", 1000)));
+        clientOutboundChannel.addInterceptor(capture);
+
+        // Logged: GAME_CREATED 1, PLAYER_JOINED 2, PLAYER_JOINED 5
+        // Broadcast: PLAYER_JOINED 3, GAME_UPDATE 4, PLAYER_JOINED 6, GAME_UPDATE 7
+        gameCode = gameService.createGame(new CreateGameRequest(players.get(0).getId(), 4, 4)).getGameCode();
+        gameService.joinGame(new JoinGameRequest(gameCode, players.get(1).getId()));
+        gameService.joinGame(new JoinGameRequest(gameCode, players.get(2).getId()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        clientOutboundChannel.removeInterceptor(capture);
+        gameStateFlusher.flushAll();
+        gameRepository.findByGameCode(gameCode).ifPresent(game -> {
+            gameEventRepository.deleteAll(gameEventRepository.findByGameIdOrderBySequenceNumber(game.getId()));
+            gameRepository.delete(game);
+        });
+        gameStateStore.evict(gameCode);
+        playerRepository.deleteAll(players);
+    }
+
+    @Test
+    void replay_RecentGap_ShouldComeFromRingOnly() throws Exception {
+        assertEquals(1, gameEventReplay.replay(SESSION, "sub-0", "/topic/game/" + gameCode, gameCode, 6));
+
+        JsonNode event = body(replayed.get(0));
+        assertEquals(7, event.get("seq").asInt());
+        assertEquals("GAME_UPDATE", event.get("eventType").asText());
+        assertEquals("sub-0", SimpMessageHeaderAccessor.getSubscriptionId(replayed.get(0).getHeaders()));
+    }
+
+    @Test
+    void replay_GapOlderThanRing_ShouldSendOneResync() throws Exception {
+        assertEquals(1, gameEventReplay.replay(SESSION, "sub-0", "/topic/game/" + gameCode, gameCode, 0));
+
+        JsonNode resync = body(replayed.get(0));
+        assertEquals("RESYNC", resync.get("eventType").asText());
+        assertEquals(7, resync.get("seq").asInt());
+        assertEquals(gameCode, resync.get("eventData").get("game").get("gameCode").asText());
+        assertEquals(3, resync.get("eventData").get("game").get("players").size());
+    }
+
+    @Test
+    void replay_GameNotResident_ShouldResyncFromDatabase() throws Exception {
+        gameStateFlusher.flushAll();
+        gameStateStore.evict(gameCode);
+
+        assertEquals(1, gameEventReplay.replay(SESSION, "sub-0", "/topic/game/" + gameCode, gameCode, 3));
+
+        JsonNode resync = body(replayed.get(0));
+        assertEquals("RESYNC", resync.get("eventType").asText());
+        assertEquals(7, resync.get("seq").asInt());
+    }
+
+    @Test
+    void replay_NothingMissed_ShouldSendNothing() {
+        assertEquals(0, gameEventReplay.replay(SESSION, "sub-0", "/topic/game/" + gameCode, gameCode, 7));
+        assertTrue(replayed.isEmpty());
+    }
+
+    @Test
+    void subscribeWithLastSeq_ShouldReplayOnceBrokerHandledIt() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId(SESSION);
+        accessor.setSubscriptionId("sub-1");
+        accessor.setDestination("/topic/game/" + gameCode);
+        accessor.setNativeHeader(GameEventReplay.LAST_SEQ_HEADER, "5");
+        Message<byte[]> subscribe = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        gameEventReplay.afterMessageHandled(subscribe, null, simpleBrokerMessageHandler, null);
+
+        assertEquals(List.of(6, 7), replayed.stream().map(this::seq).toList());
+    }
+
+    private int seq(Message<?> message) {
+        try {
+            return body(message).get("seq").asInt();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private JsonNode body(Message<?> message) throws Exception {
+        return objectMapper.readTree((byte[]) message.getPayload());
+    }
+}
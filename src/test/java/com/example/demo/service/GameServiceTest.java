@@ -3,16 +3,30 @@ package com.example.demo.service;
 import com.example.demo.dto.CreateGameRequest;
 import com.example.demo.dto.GameResponse;
 import com.example.demo.dto.JoinGameRequest;
+import com.example.demo.dto.LobbyGameSummary;
 import com.example.demo.entity.Player;
 import com.example.demo.enums.GameStatus;
 import com.example.demo.repository.PlayerRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -26,15 +40,38 @@ class GameServiceTest {
     @Autowired
     private PlayerRepository playerRepository;
 
+    @Autowired
+    @Qualifier("brokerChannel")
+    private AbstractSubscribableChannel brokerChannel;
+
     private Player player1;
     private Player player2;
     private Player player3;
 
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Message<?>> personal = new CopyOnWriteArrayList<>();
+    private final ChannelInterceptor capturePersonal = new ChannelInterceptor() {
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+            if (destination != null && destination.startsWith("/queue/game/")) {
+                personal.add(message);
+            }
+            return message;
+        }
+    };
+
     @BeforeEach
     void setUp() {
         player1 = playerRepository.save(new Player("TestPlayer1", 1000));
         player2 = playerRepository.save(new Player("TestPlayer2", 1000));
         player3 = playerRepository.save(new Player("TestPlayer3", 1000));
+        brokerChannel.addInterceptor(capturePersonal);
+    }
+
+    @AfterEach
+    void tearDown() {
+        brokerChannel.removeInterceptor(capturePersonal);
     }
 
     @Test
@@ -67,6 +104,37 @@ class GameServiceTest {
         assertNotNull(response.getStartedAt());
     }
 
+    @Test
+    void joinGame_StartingGame_ShouldSendEachPlayerTheirHand() throws Exception {
+        GameResponse game = gameService.createGame(new CreateGameRequest(player1.getId(), 4, 2));
+
+        gameService.joinGame(new JoinGameRequest(game.getGameCode(), player2.getId()));
+
+        for (Player player : List.of(player1, player2)) {
+            JsonNode delta = handDelta(game.getGameCode(), player.getId());
+            assertEquals(7, delta.get("added").size());
+            assertEquals(7, delta.get("handSize").asInt());
+            assertEquals(handIds(game.getGameCode(), player.getId()), ids(delta.get("added")));
+        }
+    }
+
+    @Test
+    void drawCard_ShouldSendDrawnCardToPlayer() throws Exception {
+        GameResponse game = gameService.createGame(new CreateGameRequest(player1.getId(), 4, 2));
+        GameResponse started = gameService.joinGame(new JoinGameRequest(game.getGameCode(), player2.getId()));
+        Long current = started.getPlayers().get(started.getCurrentPlayerIndex()).getPlayer().getId();
+        personal.clear();
+
+        gameService.drawCard(current, game.getGameCode());
+
+        assertEquals(1, personal.size());
+        JsonNode delta = handDelta(game.getGameCode(), current);
+        assertEquals(8, delta.get("handSize").asInt());
+        assertEquals(7, delta.get("added").get(0).get("positionInHand").asInt());
+        assertEquals(handIds(game.getGameCode(), current).subList(7, 8), ids(delta.get("added")));
+        assertTrue(delta.get("removed").isEmpty());
+    }
+
     @Test
     void joinGame_WithInvalidGameCode_ShouldThrowException() {
         JoinGameRequest request = new JoinGameRequest("INVALID", player1.getId());
@@ -123,6 +191,29 @@ class GameServiceTest {
             .allMatch(game -> game.getStatus() == GameStatus.WAITING_FOR_PLAYERS));
     }
 
+    @Test
+    void getAvailableGames_ShouldFollowSeatCountUntilGameStarts() {
+        GameResponse game = gameService.createGame(new CreateGameRequest(player1.getId(), 3, 3));
+        assertEquals(1, lobbyEntry(game.getGameCode()).getPlayerCount());
+        assertEquals("TestPlayer1", lobbyEntry(game.getGameCode()).getCreatedByName());
+
+        gameService.joinGame(new JoinGameRequest(game.getGameCode(), player2.getId()));
+        assertEquals(2, lobbyEntry(game.getGameCode()).getPlayerCount());
+
+        gameService.joinGame(new JoinGameRequest(game.getGameCode(), player3.getId()));
+        assertNull(lobbyEntry(game.getGameCode()));
+    }
+
+    @Test
+    void getAvailableGames_WhenCreatorLeaves_ShouldDropGame() {
+        GameResponse game = gameService.createGame(new CreateGameRequest(player1.getId(), 4, 2));
+        assertNotNull(lobbyEntry(game.getGameCode()));
+
+        gameService.leaveGame(player1.getId(), game.getGameCode());
+
+        assertNull(lobbyEntry(game.getGameCode()));
+    }
+
     @Test
     void getPlayerGames_ShouldReturnPlayerActiveGames() {
         CreateGameRequest createRequest = new CreateGameRequest(player1.getId(), 4, 2);
@@ -158,4 +249,39 @@ class GameServiceTest {
         // Since creator left and game hasn't started, it should be cancelled
         assertEquals(GameStatus.CANCELLED, response.getStatus());
     }
+
+    private JsonNode handDelta(String gameCode, Long playerId) throws Exception {
+        String destination = "/queue/game/" + gameCode + "/player/" + playerId;
+        for (Message<?> message : personal) {
+            JsonNode event = objectMapper.readTree((byte[]) message.getPayload());
+            if (destination.equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))
+                    && "HAND_DELTA".equals(event.get("eventType").asText())) {
+                return event.get("eventData");
+            }
+        }
+        throw new AssertionError("No HAND_DELTA sent to " + destination);
+    }
+
+    private List<Long> handIds(String gameCode, Long playerId) {
+        return gameService.getGame(gameCode, playerId).getPlayers().stream()
+            .filter(p -> p.getPlayer().getId().equals(playerId))
+            .findFirst()
+            .orElseThrow()
+            .getHand().stream()
+            .map(card -> card.getId())
+            .toList();
+    }
+
+    private static List<Long> ids(JsonNode cards) {
+        List<Long> ids = new ArrayList<>();
+        cards.forEach(card -> ids.add(card.get("id").asLong()));
+        return ids;
+    }
+
+    private LobbyGameSummary lobbyEntry(String gameCode) {
+        return gameService.getAvailableGames().stream()
+            .filter(game -> game.getGameCode().equals(gameCode))
+            .findFirst()
+            .orElse(null);
+    }
 }
@@ -0,0 +1,219 @@
+package com.example.demo.service;
+
+import com.example.demo.config.StompDiagnostics;
+import com.example.demo.config.StompMessageConverter;
+import com.example.demo.engine.GameState;
+import com.example.demo.engine.GameStateStore;
+import com.example.demo.engine.LobbyIndex;
+import com.example.demo.entity.Game;
+import com.example.demo.entity.GamePlayer;
+import com.example.demo.entity.Player;
+import com.example.demo.repository.GameRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class LobbyBroadcasterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Message<?>> broadcast = new ArrayList<>();
+    private final List<Message<?>> sent = new ArrayList<>();
+    private boolean brokerDown;
+
+    private LobbyIndex lobbyIndex;
+    private LobbyBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        lobbyIndex = new LobbyIndex(mock(GameRepository.class), mock(GameStateStore.class),
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        brokerChannel.subscribe(message -> {
+            if (brokerDown) {
+                throw new MessageDeliveryException(message, "broker down");
+            }
+            broadcast.add(message);
+        });
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+        clientOutbound.subscribe(sent::add);
+
+        StompMessageConverter converter = new StompMessageConverter(new StompDiagnostics());
+        SimpMessagingTemplate template = new SimpMessagingTemplate(brokerChannel);
+        template.setMessageConverter(converter);
+        // Never started, so diffs go out only when asked for
+        broadcaster = new LobbyBroadcaster(lobbyIndex, template, converter, new StompDiagnostics(), clientOutbound);
+    }
+
+    @Test
+    void burstOfChanges_ShouldGoOutAsOneDiff() throws Exception {
+        GameState game = state("111111", 4);
+        lobbyIndex.update(game);
+        join(game, 2L);
+        join(game, 3L);
+        GameState gone = state("222222", 4);
+        lobbyIndex.update(gone);
+        gone.leave(1L);
+        lobbyIndex.update(gone);
+
+        broadcaster.publishDiff();
+
+        assertEquals(1, broadcast.size());
+        JsonNode diff = body(broadcast.get(0));
+        assertEquals("LOBBY_DIFF", diff.get("eventType").asText());
+        JsonNode data = diff.get("eventData");
+        assertEquals(lobbyIndex.version(), data.get("version").asLong());
+        assertEquals(1, data.get("added").size());
+        assertEquals(3, data.get("added").get(0).get("playerCount").asInt());
+        assertEquals(0, data.get("updated").size());
+        assertEquals(0, data.get("removed").size());
+        assertEquals("LOBBY_DIFF",
+                SimpMessageHeaderAccessor.wrap(broadcast.get(0)).getFirstNativeHeader("event-type"));
+
+        broadcaster.publishDiff();
+        assertEquals(1, broadcast.size());
+    }
+
+    @Test
+    void laterChanges_ShouldBeSentAsUpdatesAndRemovals() throws Exception {
+        GameState game = state("111111", 3);
+        lobbyIndex.update(game);
+        broadcaster.publishDiff();
+
+        join(game, 2L);
+        broadcaster.publishDiff();
+        JsonNode updated = body(broadcast.get(1)).get("eventData");
+        assertEquals(0, updated.get("added").size());
+        assertEquals(2, updated.get("updated").get(0).get("playerCount").asInt());
+
+        join(game, 3L);
+        broadcaster.publishDiff();
+        JsonNode removed = body(broadcast.get(2)).get("eventData");
+        assertEquals(List.of("111111"), objectMapper.convertValue(removed.get("removed"), List.class));
+        assertTrue(removed.get("version").asLong() > updated.get("version").asLong());
+    }
+
+    @Test
+    void failedDiff_ShouldBeSentAgainWithTheNext() throws Exception {
+        GameState game = state("111111", 3);
+        lobbyIndex.update(game);
+        brokerDown = true;
+        broadcaster.publishDiff();
+        brokerDown = false;
+
+        join(game, 2L);
+        broadcaster.publishDiff();
+        JsonNode added = body(broadcast.get(0)).get("eventData");
+        // Still new to the subscribers
+        assertEquals(1, added.get("added").size());
+        assertEquals(2, added.get("added").get(0).get("playerCount").asInt());
+        assertEquals(0, added.get("updated").size());
+
+        join(game, 3L);
+        brokerDown = true;
+        broadcaster.publishDiff();
+        brokerDown = false;
+
+        broadcaster.publishDiff();
+        assertEquals(2, broadcast.size());
+        JsonNode removed = body(broadcast.get(1)).get("eventData");
+        assertEquals(List.of("111111"), objectMapper.convertValue(removed.get("removed"), List.class));
+    }
+
+    @Test
+    void subscribe_ShouldSendSnapshotToSubscription() throws Exception {
+        lobbyIndex.update(state("111111", 4));
+        lobbyIndex.update(state("222222", 4));
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId("lobby-session");
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination(LobbyBroadcaster.DESTINATION);
+        Message<byte[]> subscribe = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        broadcaster.afterMessageHandled(subscribe, null, mock(SimpleBrokerMessageHandler.class), null);
+
+        assertEquals(1, sent.size());
+        assertEquals("sub-0", SimpMessageHeaderAccessor.getSubscriptionId(sent.get(0).getHeaders()));
+        assertEquals("lobby-session", SimpMessageHeaderAccessor.getSessionId(sent.get(0).getHeaders()));
+        JsonNode snapshot = body(sent.get(0));
+        assertEquals("LOBBY_SNAPSHOT", snapshot.get("eventType").asText());
+        assertEquals(2, snapshot.get("eventData").get("version").asLong());
+        assertEquals(2, snapshot.get("eventData").get("games").size());
+
+        // Other destinations are left to the broker
+        accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId("lobby-session");
+        accessor.setSubscriptionId("sub-1");
+        accessor.setDestination("/topic/game/111111");
+        broadcaster.afterMessageHandled(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()),
+                null, mock(SimpleBrokerMessageHandler.class), null);
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    void relay_ShouldPushNothing() {
+        ReflectionTestUtils.setField(broadcaster, "brokerMode", "relay");
+        lobbyIndex.update(state("111111", 4));
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId("lobby-session");
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination(LobbyBroadcaster.DESTINATION);
+        broadcaster.afterMessageHandled(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()),
+                null, mock(SimpleBrokerMessageHandler.class), null);
+        broadcaster.start();
+        try {
+            assertTrue(sent.isEmpty());
+            assertNull(ReflectionTestUtils.getField(broadcaster, "executor"));
+        } finally {
+            broadcaster.stop();
+        }
+    }
+
+    private void join(GameState state, Long playerId) {
+        GamePlayer gamePlayer = new GamePlayer(new Game(state.getGameCode(), player(1L)), player(playerId),
+                state.getSeats().size());
+        gamePlayer.setId(playerId);
+        state.addSeat(gamePlayer);
+        lobbyIndex.update(state);
+    }
+
+    private JsonNode body(Message<?> message) throws Exception {
+        return objectMapper.readTree((byte[]) message.getPayload());
+    }
+
+    private static GameState state(String gameCode, int maxPlayers) {
+        Game game = new Game(gameCode, player(1L));
+        game.setId(Long.parseLong(gameCode));
+        game.setMaxPlayers(maxPlayers);
+        GamePlayer creator = new GamePlayer(game, player(1L), 0);
+        creator.setId(1L);
+        game.getGamePlayers().add(creator);
+        return GameState.fromEntities(game, null);
+    }
+
+    private static Player player(Long id) {
+        Player player = new Player("Player" + id, 1000);
+        player.setId(id);
+        return player;
+    }
+}
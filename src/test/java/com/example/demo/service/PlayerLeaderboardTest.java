@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.LeaderboardEntry;
+import com.example.demo.dto.PlayerResponse;
+import com.example.demo.entity.Player;
+import com.example.demo.repository.PlayerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PlayerLeaderboardTest {
+
+    private final PlayerRepository playerRepository = mock(PlayerRepository.class);
+    private final PlayerLeaderboard leaderboard = new PlayerLeaderboard(playerRepository,
+        mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        leaderboard.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void randomUpdates_ShouldMatchSortedPlayers() {
+        Random random = new Random(7);
+        Map<Long, PlayerResponse> expected = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            Long id = (long) random.nextInt(500);
+            if (random.nextInt(10) == 0) {
+                leaderboard.remove(id);
+                expected.remove(id);
+            } else {
+                // Few distinct amounts, so ties are common
+                PlayerResponse player = new PlayerResponse(id, "Player" + id, random.nextInt(50) * 10);
+                leaderboard.put(player);
+                expected.put(id, player);
+            }
+        }
+
+        List<PlayerResponse> sorted = new ArrayList<>(expected.values());
+        sorted.sort(Comparator.comparing(PlayerResponse::getCoins, Comparator.reverseOrder())
+            .thenComparing(PlayerResponse::getId));
+
+        assertEquals(sorted.size(), leaderboard.size());
+        List<PlayerResponse> paged = new ArrayList<>();
+        for (int offset = 0; offset < sorted.size(); offset += 37) {
+            paged.addAll(leaderboard.page(offset, 37));
+        }
+        assertEquals(sorted, paged);
+
+        for (int rank = 1; rank <= sorted.size(); rank++) {
+            PlayerResponse player = sorted.get(rank - 1);
+            assertEquals(rank, leaderboard.rankOf(player.getId()).orElseThrow().getRank());
+        }
+
+        long rich = sorted.stream().filter(player -> player.getCoins() >= 250).count();
+        List<PlayerResponse> richPage = leaderboard.pageWithMinCoins(250, 0, 100);
+        assertEquals(sorted.subList(0, (int) Math.min(rich, 100)), richPage);
+        assertTrue(leaderboard.pageWithMinCoins(250, (int) rich, 100).isEmpty());
+    }
+
+    @Test
+    void around_ShouldRankNeighbours() {
+        for (long id = 1; id <= 10; id++) {
+            leaderboard.put(new PlayerResponse(id, "Player" + id, (int) id * 100));
+        }
+
+        List<LeaderboardEntry> around = leaderboard.around(9L, 2);
+        assertEquals(List.of(10L, 9L, 8L, 7L), around.stream().map(LeaderboardEntry::getId).toList());
+        assertEquals(List.of(1, 2, 3, 4), around.stream().map(LeaderboardEntry::getRank).toList());
+
+        assertEquals(List.of(4L, 3L, 2L, 1L),
+            leaderboard.around(2L, 2).stream().map(LeaderboardEntry::getId).toList());
+        assertTrue(leaderboard.around(99L, 2).isEmpty());
+        assertEquals(Optional.empty(), leaderboard.rankOf(99L));
+    }
+
+    @Test
+    void rollback_ShouldRestoreCommittedCoins() {
+        leaderboard.put(new PlayerResponse(1L, "Alice", 100));
+        leaderboard.put(new PlayerResponse(2L, "Bob", 200));
+
+        TransactionSynchronizationManager.initSynchronization();
+        leaderboard.put(new PlayerResponse(1L, "Alice", 900));
+        assertEquals(1, leaderboard.rankOf(1L).orElseThrow().getRank());
+
+        Player committed = new Player("Alice", 100);
+        committed.setId(1L);
+        when(playerRepository.findById(1L)).thenReturn(Optional.of(committed));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(2, leaderboard.rankOf(1L).orElseThrow().getRank());
+        assertEquals(100, leaderboard.rankOf(1L).orElseThrow().getCoins());
+    }
+}